@@ -1,11 +1,16 @@
 package dev.vality.testcontainers.annotations.kafka;
 
+import dev.vality.testcontainers.annotations.kafka.constants.BrokerProfile;
+import lombok.Synchronized;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.AdminClient;
 import org.testcontainers.containers.Network;
 import org.testcontainers.kafka.KafkaContainer;
 import org.testcontainers.utility.DockerImageName;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static dev.vality.testcontainers.annotations.util.SpringApplicationPropertiesLoader.loadDefaultLibraryProperty;
@@ -17,12 +22,16 @@ public class ApacheKafkaContainer extends KafkaContainer implements KafkaContain
     private static final String KAFKA_IMAGE_NAME = APACHE + "/kafka";
     private static final String TAG_PROPERTY = "testcontainers.kafka." + APACHE + ".tag";
     private final List<String> topics;
+    private final boolean topicsCliVerification;
+    private AdminClient adminClient;
 
     public ApacheKafkaContainer(List<String> topics) {
         super(DockerImageName
                 .parse(KAFKA_IMAGE_NAME)
                 .withTag(loadDefaultLibraryProperty(TAG_PROPERTY)));
         this.topics = topics;
+        this.topicsCliVerification = Boolean.parseBoolean(
+                loadDefaultLibraryProperty(TOPICS_CLI_VERIFICATION_PROPERTY).trim());
         withEnv("ALLOW_PLAINTEXT_LISTENER", "yes");
         withEnv("KAFKA_CFG_DELETE_TOPIC_ENABLE", "true");
         withEnv("KAFKA_DELETE_TOPIC_ENABLE", "true");
@@ -32,6 +41,11 @@ public class ApacheKafkaContainer extends KafkaContainer implements KafkaContain
         withEnv("KAFKA_CFG_NODE_ID", "1");
         withNetworkAliases("kafka-" + UUID.randomUUID());
         withNetwork(Network.SHARED);
+        var brokerProfile = KafkaBrokerSettings.brokerProfile();
+        withEnv(KafkaBrokerSettings.brokerEnv(brokerProfile));
+        if (brokerProfile == BrokerProfile.TUNED) {
+            withTmpFs(Map.of(KafkaBrokerSettings.IN_MEMORY_LOG_DIRECTORY, "rw"));
+        }
     }
 
     @Override
@@ -44,4 +58,28 @@ public class ApacheKafkaContainer extends KafkaContainer implements KafkaContain
         var kafkaTopicsPath = "/opt/kafka/bin/kafka-topics.sh";
         return execInContainerKafkaTopicsListCommandWithPath(kafkaTopicsPath);
     }
+
+    @Override
+    @Synchronized
+    public AdminClient getAdminClient() {
+        if (adminClient == null) {
+            adminClient = createAdminClient();
+        }
+        return adminClient;
+    }
+
+    @Override
+    public boolean isTopicsCliVerificationEnabled() {
+        return topicsCliVerification;
+    }
+
+    @Override
+    @Synchronized
+    public void stop() {
+        if (adminClient != null) {
+            adminClient.close(Duration.ZERO);
+            adminClient = null;
+        }
+        super.stop();
+    }
 }
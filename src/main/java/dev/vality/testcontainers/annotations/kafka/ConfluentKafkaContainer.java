@@ -1,10 +1,15 @@
 package dev.vality.testcontainers.annotations.kafka;
 
+import dev.vality.testcontainers.annotations.kafka.constants.BrokerProfile;
+import lombok.Synchronized;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.AdminClient;
 import org.testcontainers.containers.Network;
 import org.testcontainers.utility.DockerImageName;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static dev.vality.testcontainers.annotations.util.SpringApplicationPropertiesLoader.loadDefaultLibraryProperty;
@@ -17,12 +22,16 @@ public class ConfluentKafkaContainer extends org.testcontainers.kafka.ConfluentK
     private static final String KAFKA_IMAGE_NAME = CONFLUENT + "inc/cp-kafka";
     private static final String TAG_PROPERTY = "testcontainers.kafka." + CONFLUENT + ".tag";
     private final List<String> topics;
+    private final boolean topicsCliVerification;
+    private AdminClient adminClient;
 
     public ConfluentKafkaContainer(List<String> topics) {
         super(DockerImageName
                 .parse(KAFKA_IMAGE_NAME)
                 .withTag(loadDefaultLibraryProperty(TAG_PROPERTY)));
         this.topics = topics;
+        this.topicsCliVerification = Boolean.parseBoolean(
+                loadDefaultLibraryProperty(TOPICS_CLI_VERIFICATION_PROPERTY).trim());
         withEnv("ALLOW_PLAINTEXT_LISTENER", "yes");
         withEnv("KAFKA_CFG_DELETE_TOPIC_ENABLE", "true");
         withEnv("KAFKA_DELETE_TOPIC_ENABLE", "true");
@@ -32,6 +41,11 @@ public class ConfluentKafkaContainer extends org.testcontainers.kafka.ConfluentK
         withEnv("KAFKA_CFG_NODE_ID", "1");
         withNetworkAliases("kafka-" + UUID.randomUUID());
         withNetwork(Network.SHARED);
+        var brokerProfile = KafkaBrokerSettings.brokerProfile();
+        withEnv(KafkaBrokerSettings.brokerEnv(brokerProfile));
+        if (brokerProfile == BrokerProfile.TUNED) {
+            withTmpFs(Map.of(KafkaBrokerSettings.IN_MEMORY_LOG_DIRECTORY, "rw"));
+        }
     }
 
     @Override
@@ -44,4 +58,28 @@ public class ConfluentKafkaContainer extends org.testcontainers.kafka.ConfluentK
         var kafkaTopicsPath = "/usr/bin/kafka-topics";
         return execInContainerKafkaTopicsListCommandWithPath(kafkaTopicsPath);
     }
+
+    @Override
+    @Synchronized
+    public AdminClient getAdminClient() {
+        if (adminClient == null) {
+            adminClient = createAdminClient();
+        }
+        return adminClient;
+    }
+
+    @Override
+    public boolean isTopicsCliVerificationEnabled() {
+        return topicsCliVerification;
+    }
+
+    @Override
+    @Synchronized
+    public void stop() {
+        if (adminClient != null) {
+            adminClient.close(Duration.ZERO);
+            adminClient = null;
+        }
+        super.stop();
+    }
 }
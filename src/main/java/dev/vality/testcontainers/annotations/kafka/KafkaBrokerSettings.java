@@ -0,0 +1,54 @@
+package dev.vality.testcontainers.annotations.kafka;
+
+import dev.vality.testcontainers.annotations.kafka.constants.BrokerProfile;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import static dev.vality.testcontainers.annotations.util.SpringApplicationPropertiesLoader.loadDefaultLibraryProperty;
+
+/**
+ * Настройки брокера для {@link BrokerProfile}, общие для {@link ApacheKafkaContainer}
+ * и {@link ConfluentKafkaContainer}. Оба образа переводят переменные окружения {@code KAFKA_*}
+ * в параметры {@code server.properties}
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+class KafkaBrokerSettings {
+
+    static final String IN_MEMORY_LOG_DIRECTORY = "/var/lib/kafka-tmpfs";
+    private static final String BROKER_PROFILE_PROPERTY = "testcontainers.kafka.broker-profile";
+    private static final String SEGMENT_BYTES = String.valueOf(1024 * 1024);
+    private static final String INDEX_SIZE_MAX_BYTES = String.valueOf(64 * 1024);
+
+    static BrokerProfile brokerProfile() {
+        var property = loadDefaultLibraryProperty(BROKER_PROFILE_PROPERTY);
+        return "null".equals(property)
+                ? BrokerProfile.DEFAULT
+                : BrokerProfile.valueOf(property.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+    }
+
+    static Map<String, String> brokerEnv(BrokerProfile brokerProfile) {
+        var env = new LinkedHashMap<String, String>();
+        if (brokerProfile == BrokerProfile.TUNED) {
+            env.put("KAFKA_GROUP_INITIAL_REBALANCE_DELAY_MS", "0");
+            env.put("KAFKA_LOG_DIRS", IN_MEMORY_LOG_DIRECTORY);
+            env.put("KAFKA_LOG_SEGMENT_BYTES", SEGMENT_BYTES);
+            env.put("KAFKA_LOG_INDEX_SIZE_MAX_BYTES", INDEX_SIZE_MAX_BYTES);
+            env.put("KAFKA_LOG_FLUSH_INTERVAL_MESSAGES", String.valueOf(Long.MAX_VALUE));
+            env.put("KAFKA_NUM_PARTITIONS", "1");
+            env.put("KAFKA_DEFAULT_REPLICATION_FACTOR", "1");
+            env.put("KAFKA_MIN_INSYNC_REPLICAS", "1");
+            env.put("KAFKA_OFFSETS_TOPIC_NUM_PARTITIONS", "1");
+            env.put("KAFKA_OFFSETS_TOPIC_REPLICATION_FACTOR", "1");
+            env.put("KAFKA_OFFSETS_TOPIC_SEGMENT_BYTES", SEGMENT_BYTES);
+            env.put("KAFKA_TRANSACTION_STATE_LOG_NUM_PARTITIONS", "1");
+            env.put("KAFKA_TRANSACTION_STATE_LOG_REPLICATION_FACTOR", "1");
+            env.put("KAFKA_TRANSACTION_STATE_LOG_MIN_ISR", "1");
+            env.put("KAFKA_TRANSACTION_STATE_LOG_SEGMENT_BYTES", SEGMENT_BYTES);
+        }
+        return env;
+    }
+}
@@ -1,9 +1,14 @@
 package dev.vality.testcontainers.annotations.kafka;
 
 import dev.vality.testcontainers.annotations.exception.KafkaStartingException;
+import dev.vality.testcontainers.annotations.kafka.constants.TopicTruncateMode;
 import org.apache.kafka.clients.admin.AdminClient;
 import org.apache.kafka.clients.admin.AdminClientConfig;
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.admin.RecordsToDelete;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.UnknownTopicOrPartitionException;
 import org.awaitility.Awaitility;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,8 +17,13 @@ import org.testcontainers.lifecycle.Startable;
 
 import java.io.IOException;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -25,6 +35,10 @@ public interface KafkaContainerExtension extends Startable, ContainerState {
 
     int WAIT_TIMEOUT = 90;
 
+    String TOPICS_CLI_VERIFICATION_PROPERTY = "testcontainers.kafka.topics-cli-verification";
+
+    Duration TOPIC_METADATA_POLL_INTERVAL = Duration.ofMillis(10);
+
     Logger log = LoggerFactory.getLogger(KafkaContainerExtension.class);
 
     List<String> topics();
@@ -33,14 +47,106 @@ public interface KafkaContainerExtension extends Startable, ContainerState {
 
     String execInContainerKafkaTopicsListCommand();
 
-    default void createTopics(List<String> excludedTopics) {
-        try (var admin = createAdminClient()) {
-            var topics = topics().stream()
-                    .filter(topic -> !excludedTopics.contains(topic))
-                    .toList();
-            if (topics.isEmpty()) {
+    /**
+     * @return {@link AdminClient} контейнера, который создается при первом вызове и закрывается
+     * при остановке контейнера
+     */
+    AdminClient getAdminClient();
+
+    /**
+     * @return true, если после создания и удаления топиков результат дополнительно сверяется
+     * с выводом {@code kafka-topics --list} в контейнере
+     * (параметр {@code testcontainers.kafka.topics-cli-verification})
+     */
+    boolean isTopicsCliVerificationEnabled();
+
+    default void truncateTopics(List<String> excludedTopics, TopicTruncateMode truncateMode) {
+        switch (truncateMode) {
+            case DELETE_RECORDS -> deleteRecords(excludedTopics);
+            case RECREATE_TOPICS -> {
+                deleteTopics(excludedTopics);
+                createTopics(excludedTopics);
+            }
+        }
+    }
+
+    /**
+     * Удаляет записи топиков до текущих конечных смещений партиций через {@link AdminClient#deleteRecords(Map)}.
+     * Отсутствующие топики создаются
+     */
+    default void deleteRecords(List<String> excludedTopics) {
+        deleteTopicRecords(topics().stream()
+                .filter(topic -> !excludedTopics.contains(topic))
+                .toList());
+    }
+
+    /**
+     * Удаляет записи переданных топиков до текущих конечных смещений партиций. Отсутствующие топики создаются.
+     * Партиции запрашиваются по известным именам топиков без {@link AdminClient#listTopics()},
+     * список топиков брокера читается только если какого-то топика нет
+     */
+    default void deleteTopicRecords(Collection<String> topics) {
+        if (topics.isEmpty()) {
+            return;
+        }
+        var admin = getAdminClient();
+        try {
+            var latestOffsets = new HashMap<TopicPartition, OffsetSpec>();
+            var missingTopics = new ArrayList<String>();
+            for (var entry : admin.describeTopics(topics).topicNameValues().entrySet()) {
+                try {
+                    entry.getValue().get(WAIT_TIMEOUT, TimeUnit.SECONDS).partitions().forEach(partition ->
+                            latestOffsets.put(
+                                    new TopicPartition(entry.getKey(), partition.partition()),
+                                    OffsetSpec.latest()));
+                } catch (ExecutionException ex) {
+                    if (!(ex.getCause() instanceof UnknownTopicOrPartitionException)) {
+                        throw ex;
+                    }
+                    missingTopics.add(entry.getKey());
+                }
+            }
+            createTopicsIfAbsent(missingTopics);
+            if (latestOffsets.isEmpty()) {
                 return;
             }
+            var recordsToDelete = new HashMap<TopicPartition, RecordsToDelete>();
+            admin.listOffsets(latestOffsets).all().get(WAIT_TIMEOUT, TimeUnit.SECONDS)
+                    .forEach((topicPartition, offset) -> {
+                        if (offset.offset() > 0) {
+                            recordsToDelete.put(topicPartition, RecordsToDelete.beforeOffset(offset.offset()));
+                        }
+                    });
+            if (!recordsToDelete.isEmpty()) {
+                admin.deleteRecords(recordsToDelete).all().get(WAIT_TIMEOUT, TimeUnit.SECONDS);
+            }
+        } catch (ExecutionException | TimeoutException ex) {
+            throw new KafkaStartingException("Error when records deleting, ", ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new KafkaStartingException("Error when records deleting, ", ex);
+        }
+    }
+
+    /**
+     * Создает отсутствующие топики и ожидает завершения {@link AdminClient#createTopics(java.util.Collection)},
+     * а затем выбора лидеров всех партиций по {@link AdminClient#describeTopics(java.util.Collection)}
+     */
+    default void createTopics(List<String> excludedTopics) {
+        createTopicsIfAbsent(topics().stream()
+                .filter(topic -> !excludedTopics.contains(topic))
+                .toList());
+    }
+
+    /**
+     * Создает отсутствующие топики из переданных, в том числе не входящие в {@link #topics()}
+     */
+    default void createTopicsIfAbsent(Collection<String> topics) {
+        if (topics.isEmpty()) {
+            return;
+        }
+        var admin = getAdminClient();
+        try {
             var existingTopics = admin.listTopics().names().get(WAIT_TIMEOUT, TimeUnit.SECONDS);
             var topicsToCreate = topics.stream()
                     .filter(topic -> !existingTopics.contains(topic))
@@ -52,18 +158,18 @@ public interface KafkaContainerExtension extends Startable, ContainerState {
                     .map(topic -> new NewTopic(topic, 1, (short) 1))
                     .peek(newTopic -> log.info(newTopic.toString()))
                     .collect(Collectors.toList());
-            var topicsResult = admin.createTopics(newTopics);
+            admin.createTopics(newTopics).all().get(WAIT_TIMEOUT, TimeUnit.SECONDS);
             Awaitility.await()
                     .atMost(Duration.ofSeconds(WAIT_TIMEOUT))
-                    .pollInterval(Duration.ofSeconds(2))
-                    .untilAsserted(() -> topicsResult.all().get(1, TimeUnit.SECONDS));
-            var topicsAfterCreate = admin.listTopics().names().get(WAIT_TIMEOUT, TimeUnit.SECONDS);
-            log.info("Topics list from 'AdminClient' after [TOPICS CREATED]: {}", topicsAfterCreate);
-            assertThat(topicsAfterCreate)
-                    .containsAll(topicsToCreate);
-            var actual = execInContainerKafkaTopicsListCommand();
-            assertThat(topicsToCreate.stream().allMatch(actual::contains))
-                    .isTrue();
+                    .pollInterval(TOPIC_METADATA_POLL_INTERVAL)
+                    .ignoreExceptions()
+                    .until(() -> hasPartitionLeaders(admin, topicsToCreate));
+            log.info("Topics created: {}", topicsToCreate);
+            if (isTopicsCliVerificationEnabled()) {
+                var actual = execInContainerKafkaTopicsListCommand();
+                assertThat(topicsToCreate.stream().allMatch(actual::contains))
+                        .isTrue();
+            }
         } catch (ExecutionException | TimeoutException ex) {
             throw new KafkaStartingException("Error when topic creating, ", ex);
         } catch (InterruptedException ex) {
@@ -72,8 +178,13 @@ public interface KafkaContainerExtension extends Startable, ContainerState {
         }
     }
 
+    /**
+     * Удаляет топики и ожидает завершения {@link AdminClient#deleteTopics(java.util.Collection)},
+     * а затем исчезновения топиков из метаданных, чтобы их можно было сразу создать заново
+     */
     default void deleteTopics(List<String> excludedTopics) {
-        try (var admin = createAdminClient()) {
+        var admin = getAdminClient();
+        try {
             var existingTopics = admin.listTopics().names().get(WAIT_TIMEOUT, TimeUnit.SECONDS);
             if (existingTopics.isEmpty()) {
                 return;
@@ -87,18 +198,18 @@ public interface KafkaContainerExtension extends Startable, ContainerState {
             if (topicsToDelete.isEmpty()) {
                 return;
             }
-            var topicsResult = admin.deleteTopics(topicsToDelete);
+            admin.deleteTopics(topicsToDelete).all().get(WAIT_TIMEOUT, TimeUnit.SECONDS);
             Awaitility.await()
                     .atMost(Duration.ofSeconds(WAIT_TIMEOUT))
-                    .pollInterval(Duration.ofSeconds(2))
-                    .untilAsserted(() -> topicsResult.all().get(1, TimeUnit.SECONDS));
-            var topicsAfterDelete = admin.listTopics().names().get(WAIT_TIMEOUT, TimeUnit.SECONDS);
-            log.info("Topics list from 'AdminClient' after [TOPICS DELETED]: {}", topicsAfterDelete);
-            assertThat(topicsAfterDelete.stream().noneMatch(topicsToDelete::contains))
-                    .isTrue();
-            var actual = execInContainerKafkaTopicsListCommand();
-            assertThat(topicsToDelete.stream().noneMatch(actual::contains))
-                    .isTrue();
+                    .pollInterval(TOPIC_METADATA_POLL_INTERVAL)
+                    .until(() -> admin.listTopics().names().get(WAIT_TIMEOUT, TimeUnit.SECONDS).stream()
+                            .noneMatch(topicsToDelete::contains));
+            log.info("Topics deleted: {}", topicsToDelete);
+            if (isTopicsCliVerificationEnabled()) {
+                var actual = execInContainerKafkaTopicsListCommand();
+                assertThat(topicsToDelete.stream().noneMatch(actual::contains))
+                        .isTrue();
+            }
         } catch (ExecutionException | TimeoutException ex) {
             throw new KafkaStartingException("Error when topic deleting, ", ex);
         } catch (InterruptedException ex) {
@@ -107,6 +218,30 @@ public interface KafkaContainerExtension extends Startable, ContainerState {
         }
     }
 
+    /**
+     * Удаляет топики в фоне, не дожидаясь завершения удаления. Ошибки удаления пишутся в лог
+     */
+    default CompletableFuture<Void> deleteTopicsAsync(Collection<String> topics) {
+        if (topics.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return getAdminClient().deleteTopics(topics).all()
+                .toCompletionStage()
+                .toCompletableFuture()
+                .whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        log.warn("Error when deleting topics {}", topics, ex);
+                    }
+                });
+    }
+
+    private static boolean hasPartitionLeaders(AdminClient admin, Collection<String> topics)
+            throws ExecutionException, InterruptedException, TimeoutException {
+        return admin.describeTopics(topics).allTopicNames().get(WAIT_TIMEOUT, TimeUnit.SECONDS).values().stream()
+                .flatMap(description -> description.partitions().stream())
+                .allMatch(partition -> partition.leader() != null && !partition.leader().isEmpty());
+    }
+
     default AdminClient createAdminClient() {
         var properties = new Properties();
         properties.put(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, getBootstrapServers());
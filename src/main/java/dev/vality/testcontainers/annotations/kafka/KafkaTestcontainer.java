@@ -4,6 +4,7 @@ import dev.vality.testcontainers.annotations.KafkaTestConfig;
 import dev.vality.testcontainers.annotations.kafka.config.KafkaConsumer;
 import dev.vality.testcontainers.annotations.kafka.config.KafkaProducer;
 import dev.vality.testcontainers.annotations.kafka.constants.Provider;
+import dev.vality.testcontainers.annotations.kafka.constants.TopicTruncateMode;
 import dev.vality.testcontainers.annotations.postgresql.PostgresqlTestcontainer;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -133,4 +134,14 @@ public @interface KafkaTestcontainer {
      */
     String[] excludeTruncateTopics() default {};
 
+    /**
+     * Способ очистки топиков между тестами.
+     * Используется только если {@link #truncateTopics()} = true
+     * <p>
+     * пример — truncateMode = TopicTruncateMode.RECREATE_TOPICS
+     *
+     * @see TopicTruncateMode TopicTruncateMode
+     */
+    TopicTruncateMode truncateMode() default TopicTruncateMode.DELETE_RECORDS;
+
 }
@@ -1,7 +1,10 @@
 package dev.vality.testcontainers.annotations.kafka;
 
+import dev.vality.testcontainers.annotations.kafka.constants.TopicIsolation;
+import dev.vality.testcontainers.annotations.kafka.constants.TopicTruncateMode;
 import dev.vality.testcontainers.annotations.util.GenericContainerUtil;
 import dev.vality.testcontainers.annotations.util.SpringApplicationPropertiesLoader;
+import lombok.Synchronized;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.admin.AdminClient;
 import org.junit.jupiter.api.extension.AfterAllCallback;
@@ -15,9 +18,14 @@ import org.springframework.test.context.ContextConfigurationAttributes;
 import org.springframework.test.context.ContextCustomizer;
 import org.springframework.test.context.ContextCustomizerFactory;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
@@ -35,12 +43,15 @@ import java.util.stream.Collectors;
  * <p>Данное расширение немного сложнее других аналогичных в библиотеке за счет дополнительной работы с топиками
  * <p>Работа заключается в загрузке имен топиков из файла с настройками спринга {@link #loadTopics(String[])},
  * создании топиков через {@link AdminClient} в {@link KafkaContainerExtension#createTopics(List)},
- * а также валидации результата создания через запрос '/usr/bin/kafka-topics --zookeeper localhost:2181 --list'
- * напрямую в контейнере в {@link KafkaContainerExtension#execInContainerKafkaTopicsListCommand()}
- * <p>Также помимо перечисленного, при работе расширения для создания синглтона перед запуском тестов
- * в каждом файле будет проводится удаление созданных ранее топиков в {@link KafkaContainerExtension#deleteTopics(List)}
- * и дальнейшее пересоздание топиков в {@link KafkaContainerExtension#createTopics(List)},
- * таким образом обеспечивая изоляцию данных между файлами с тестами
+ * с ожиданием выбора лидеров партиций, а также опциональной валидации результата создания через запрос
+ * 'kafka-topics --list' напрямую в контейнере в {@link KafkaContainerExtension#execInContainerKafkaTopicsListCommand()}
+ * <p>Также помимо перечисленного, перед каждым тестом (а для синглтона и перед каждым файлом с тестами)
+ * топики очищаются в {@link KafkaContainerExtension#truncateTopics(List, TopicTruncateMode)}: по умолчанию
+ * записи удаляются до конечных смещений партиций, а с {@link TopicTruncateMode#RECREATE_TOPICS} топики
+ * удаляются и создаются заново, таким образом обеспечивая изоляцию данных между тестами
+ * <p>Для синглтона с {@link TopicIsolation#PER_CLASS} каждый тестовый класс получает собственные топики
+ * с суффиксом класса, которые передаются в контекст приложения по ключам {@code topicsKeys}
+ * и удаляются в фоне после класса
  *
  * @see KafkaTestcontainerFactory KafkaTestcontainerFactory
  * @see KafkaTestcontainerExtension.KafkaTestcontainerContextCustomizerFactory KafkaTestcontainerContextCustomizerFactory
@@ -53,6 +64,8 @@ import java.util.stream.Collectors;
 public class KafkaTestcontainerExtension implements BeforeAllCallback, AfterAllCallback, BeforeEachCallback {
 
     private static final ThreadLocal<KafkaContainerExtension> THREAD_CONTAINER = new ThreadLocal<>();
+    private static final Map<Class<?>, ClassTopics> CLASS_TOPICS = new ConcurrentHashMap<>();
+    private static final AtomicInteger CLASS_TOPICS_COUNTER = new AtomicInteger();
 
     @Override
     public void beforeAll(ExtensionContext context) {
@@ -67,15 +80,18 @@ public class KafkaTestcontainerExtension implements BeforeAllCallback, AfterAllC
             var annotation = findSingletonAnnotation(context).get();
             var topics = loadTopics(annotation.topicsKeys());
             var container = KafkaTestcontainerFactory.singletonContainer(annotation.provider(), topics);
-            if (!container.isRunning()) {
-                GenericContainerUtil.startContainer(container);
+            var excludedTopics = Optional.ofNullable(annotation.excludeTruncateTopics())
+                    .map(List::of)
+                    .orElse(List.of());
+            if (annotation.topicIsolation() == TopicIsolation.PER_CLASS) {
+                startIfNotRunning(container);
+                var classTopics = ClassTopics.create(context.getRequiredTestClass(), annotation, excludedTopics);
+                container.createTopicsIfAbsent(classTopics.topicsByKey().values());
+                CLASS_TOPICS.put(context.getRequiredTestClass(), classTopics);
+            } else if (startIfNotRunning(container)) {
                 container.createTopics(List.of());
             } else if (annotation.truncateTopics()) {
-                var excludedTopics = Optional.ofNullable(annotation.excludeTruncateTopics())
-                        .map(List::of)
-                        .orElse(List.of());
-                container.deleteTopics(excludedTopics);
-                container.createTopics(excludedTopics);
+                container.truncateTopics(excludedTopics, annotation.truncateMode());
             }
             THREAD_CONTAINER.set(container);
         }
@@ -90,17 +106,18 @@ public class KafkaTestcontainerExtension implements BeforeAllCallback, AfterAllC
                 var excludedTopics = Optional.ofNullable(annotation.excludeTruncateTopics())
                         .map(List::of)
                         .orElse(List.of());
-                container.deleteTopics(excludedTopics);
-                container.createTopics(excludedTopics);
+                container.truncateTopics(excludedTopics, annotation.truncateMode());
             }
         } else if (findSingletonAnnotation(context).isPresent()) {
             var annotation = findSingletonAnnotation(context).get();
-            if (container != null && container.isRunning() && annotation.truncateTopics()) {
+            var classTopics = CLASS_TOPICS.get(context.getRequiredTestClass());
+            if (container != null && container.isRunning() && annotation.truncateTopics() && classTopics != null) {
+                container.deleteTopicRecords(classTopics.truncatedTopics());
+            } else if (container != null && container.isRunning() && annotation.truncateTopics()) {
                 var excludedTopics = Optional.ofNullable(annotation.excludeTruncateTopics())
                         .map(List::of)
                         .orElse(List.of());
-                container.deleteTopics(excludedTopics);
-                container.createTopics(excludedTopics);
+                container.truncateTopics(excludedTopics, annotation.truncateMode());
             }
         }
     }
@@ -114,10 +131,27 @@ public class KafkaTestcontainerExtension implements BeforeAllCallback, AfterAllC
             }
             THREAD_CONTAINER.remove();
         } else if (findSingletonAnnotation(context).isPresent()) {
+            var container = THREAD_CONTAINER.get();
+            var classTopics = CLASS_TOPICS.remove(context.getRequiredTestClass());
+            if (container != null && container.isRunning() && classTopics != null) {
+                container.deleteTopicsAsync(classTopics.topicsByKey().values());
+            }
             THREAD_CONTAINER.remove();
         }
     }
 
+    /**
+     * @return true, если контейнер был запущен этим вызовом
+     */
+    @Synchronized
+    private static boolean startIfNotRunning(KafkaContainerExtension container) {
+        if (container.isRunning()) {
+            return false;
+        }
+        GenericContainerUtil.startContainer(container);
+        return true;
+    }
+
     private static Optional<KafkaTestcontainer> findPrototypeAnnotation(ExtensionContext context) {
         return AnnotationSupport.findAnnotation(context.getTestClass(), KafkaTestcontainer.class);
     }
@@ -141,6 +175,43 @@ public class KafkaTestcontainerExtension implements BeforeAllCallback, AfterAllC
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Топики тестового класса для {@link TopicIsolation#PER_CLASS}
+     *
+     * @param topicsByKey     имена топиков класса по ключам из {@code topicsKeys}
+     * @param groupIdsByKey   группы консьюмеров класса по ключам из {@code groupIdKeys}
+     * @param truncatedTopics топики класса, которые очищаются между тестами
+     */
+    private record ClassTopics(
+            Map<String, String> topicsByKey,
+            Map<String, String> groupIdsByKey,
+            List<String> truncatedTopics) {
+
+        static ClassTopics create(
+                Class<?> testClass,
+                KafkaTestcontainerSingleton annotation,
+                List<String> excludedTopics) {
+            var suffix = "-" + testClass.getSimpleName().replaceAll("[^a-zA-Z0-9._-]", "_")
+                    + "-" + CLASS_TOPICS_COUNTER.incrementAndGet();
+            var topicsByKey = new LinkedHashMap<String, String>();
+            var truncatedTopics = new ArrayList<String>();
+            SpringApplicationPropertiesLoader.loadFromSpringApplicationPropertiesFile(
+                            Arrays.asList(annotation.topicsKeys()))
+                    .forEach((key, topic) -> {
+                        var classTopic = topic + suffix;
+                        topicsByKey.put(String.valueOf(key), classTopic);
+                        if (!excludedTopics.contains(String.valueOf(topic))) {
+                            truncatedTopics.add(classTopic);
+                        }
+                    });
+            var groupIdsByKey = new LinkedHashMap<String, String>();
+            SpringApplicationPropertiesLoader.loadFromSpringApplicationPropertiesFile(
+                            Arrays.asList(annotation.groupIdKeys()))
+                    .forEach((key, groupId) -> groupIdsByKey.put(String.valueOf(key), groupId + suffix));
+            return new ClassTopics(topicsByKey, groupIdsByKey, truncatedTopics);
+        }
+    }
+
     public static class KafkaTestcontainerContextCustomizerFactory implements ContextCustomizerFactory {
 
         @Override
@@ -149,19 +220,30 @@ public class KafkaTestcontainerExtension implements BeforeAllCallback, AfterAllC
                 List<ContextConfigurationAttributes> configAttributes) {
             return (context, mergedConfig) -> {
                 if (findPrototypeAnnotation(testClass).isPresent()) {
-                    init(context, findPrototypeAnnotation(testClass).get().properties());
+                    init(context, findPrototypeAnnotation(testClass).get().properties(), Map.of());
                 } else if (findSingletonAnnotation(testClass).isPresent()) {
-                    init(context, findSingletonAnnotation(testClass).get().properties());
+                    var classProperties = Optional.ofNullable(CLASS_TOPICS.get(testClass))
+                            .map(classTopics -> {
+                                var properties = new LinkedHashMap<>(classTopics.topicsByKey());
+                                properties.putAll(classTopics.groupIdsByKey());
+                                return properties;
+                            })
+                            .orElse(new LinkedHashMap<>());
+                    init(context, findSingletonAnnotation(testClass).get().properties(), classProperties);
                 }
             };
         }
 
-        private void init(ConfigurableApplicationContext context, String[] properties) {
+        private void init(
+                ConfigurableApplicationContext context,
+                String[] properties,
+                Map<String, String> classProperties) {
             var container = THREAD_CONTAINER.get();
             TestPropertyValues.of(
                             "kafka.bootstrap-servers=" + container.getBootstrapServers(),
                             "spring.kafka.bootstrap-servers=" + container.getBootstrapServers(),
                             "kafka.ssl.enabled=false")
+                    .and(classProperties)
                     .and(properties)
                     .applyTo(context);
         }
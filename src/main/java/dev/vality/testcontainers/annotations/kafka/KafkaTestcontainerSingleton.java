@@ -4,6 +4,8 @@ import dev.vality.testcontainers.annotations.KafkaTestConfig;
 import dev.vality.testcontainers.annotations.kafka.config.KafkaConsumer;
 import dev.vality.testcontainers.annotations.kafka.config.KafkaProducer;
 import dev.vality.testcontainers.annotations.kafka.constants.Provider;
+import dev.vality.testcontainers.annotations.kafka.constants.TopicIsolation;
+import dev.vality.testcontainers.annotations.kafka.constants.TopicTruncateMode;
 import dev.vality.testcontainers.annotations.postgresql.PostgresqlTestcontainerSingleton;
 import org.apache.kafka.clients.admin.AdminClient;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -146,4 +148,35 @@ public @interface KafkaTestcontainerSingleton {
      */
     String[] excludeTruncateTopics() default {};
 
+    /**
+     * Способ очистки топиков между тестами.
+     * Используется только если {@link #truncateTopics()} = true
+     * <p>
+     * пример — truncateMode = TopicTruncateMode.RECREATE_TOPICS
+     *
+     * @see TopicTruncateMode TopicTruncateMode
+     */
+    TopicTruncateMode truncateMode() default TopicTruncateMode.DELETE_RECORDS;
+
+    /**
+     * Изоляция топиков между тестовыми классами, использующими синглтон-контейнер.
+     * С {@link TopicIsolation#PER_CLASS} записи топиков класса между тестами удаляются
+     * через {@link TopicTruncateMode#DELETE_RECORDS}
+     * <p>
+     * пример — topicIsolation = TopicIsolation.PER_CLASS
+     *
+     * @see TopicIsolation TopicIsolation
+     */
+    TopicIsolation topicIsolation() default TopicIsolation.SHARED;
+
+    /**
+     * Параметры, которые хранят в себе идентификаторы групп консьюмеров. С {@link TopicIsolation#PER_CLASS}
+     * к их значениям добавляется тот же суффикс класса, что и к топикам, иначе классы, запущенные параллельно,
+     * делили бы одну группу и забирали бы партиции друг у друга. Группы, заданные не через эти параметры
+     * (например, в коде или через {@link #properties()}), нужно делать уникальными самостоятельно
+     * <p>
+     * пример — groupIdKeys = {"kafka.consumer.group-id", "spring.kafka.consumer.group-id"}
+     */
+    String[] groupIdKeys() default {};
+
 }
@@ -0,0 +1,13 @@
+package dev.vality.testcontainers.annotations.kafka.constants;
+
+/**
+ * Профиль настроек брокера Kafka, задается параметром {@code testcontainers.kafka.broker-profile}
+ * <p>{@link #DEFAULT} — брокер запускается с настройками тестконтейнера
+ * <p>{@link #TUNED} — настройки для быстрого старта в тестах: группа потребителей собирается без задержки,
+ * служебные топики создаются с одной партицией и одной репликой, сегменты и индексы логов уменьшены,
+ * а каталог логов размещается в tmpfs-разделе
+ */
+public enum BrokerProfile {
+    DEFAULT,
+    TUNED
+}
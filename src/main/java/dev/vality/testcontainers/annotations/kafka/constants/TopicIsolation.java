@@ -0,0 +1,16 @@
+package dev.vality.testcontainers.annotations.kafka.constants;
+
+/**
+ * Изоляция топиков между тестовыми классами в синглтон-контейнере Kafka
+ * <p>{@link #SHARED} — все тестовые классы используют топики с именами из {@code topicsKeys},
+ * между классами топики очищаются
+ * <p>{@link #PER_CLASS} — каждый тестовый класс получает собственные топики: к имени топика добавляется
+ * суффикс класса, и новые имена передаются в контекст приложения по тем же ключам {@code topicsKeys}.
+ * Суффикс класса добавляется и к группам консьюмеров из {@code groupIdKeys}.
+ * Классы можно запускать параллельно на одном брокере без очистки топиков между классами.
+ * После класса его топики удаляются в фоне
+ */
+public enum TopicIsolation {
+    SHARED,
+    PER_CLASS
+}
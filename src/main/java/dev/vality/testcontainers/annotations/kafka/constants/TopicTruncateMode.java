@@ -0,0 +1,13 @@
+package dev.vality.testcontainers.annotations.kafka.constants;
+
+/**
+ * Способ очистки топиков между тестами
+ * <p>{@link #DELETE_RECORDS} — записи удаляются через {@code AdminClient.deleteRecords} до текущих конечных
+ * смещений партиций, топики и их настройки сохраняются
+ * <p>{@link #RECREATE_TOPICS} — топики удаляются и создаются заново, для тестов, которым нужны новые топики
+ * с настройками по умолчанию
+ */
+public enum TopicTruncateMode {
+    DELETE_RECORDS,
+    RECREATE_TOPICS
+}
@@ -0,0 +1,252 @@
+package dev.vality.testcontainers.annotations.postgresql;
+
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.sql.DriverManager;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static dev.vality.testcontainers.annotations.util.SpringApplicationPropertiesLoader.loadDefaultLibraryProperty;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Кэш каталога данных embedded PostgreSQL для {@link EmbeddedPostgresqlTest#snapshot()}
+ * <p>Ключ снапшота — хэш миграций из {@link EmbeddedPostgresqlTest#migrationLocations()} (путь относительно
+ * каталога миграций и содержимое), содержимого бинарников PostgreSQL, платформы и настроек очистки таблиц.
+ * Снапшот сохраняется при остановке кластера, который был запущен с нуля, если миграции Flyway применились
+ * успешно: таблицы очищаются, сервер останавливается, и PGDATA копируется в кэш. Следующие запуски копируют
+ * снапшот в новый каталог данных (через reflink, если файловая система это поддерживает), поэтому Flyway
+ * при старте контекста не находит новых миграций
+ * <p>Очищенный снапшот совпадает с тем, что видит каждый тест, только при
+ * {@link EmbeddedPostgresqlTest#truncateTables()}. Без очистки данные миграций нельзя отделить от данных,
+ * записанных тестами, поэтому снапшот в этом режиме не сохраняется
+ */
+@Slf4j
+@RequiredArgsConstructor
+class EmbeddedPostgresqlSnapshot {
+
+    private static final String SNAPSHOT_DIRECTORY_PROPERTY = "testcontainers.postgresql.embedded.snapshot-directory";
+    private static final String BINARIES_PATTERN = "classpath*:postgres-*.txz";
+    private static final String MIGRATED_QUERY = "SELECT to_regclass('flyway_schema_history') IS NOT NULL";
+    private static final String FAILED_MIGRATIONS_QUERY =
+            "SELECT COUNT(*) FROM flyway_schema_history WHERE NOT success";
+
+    private final Path snapshotDirectory;
+    private final List<String> excludedTables;
+    private final boolean truncateTables;
+
+    private static volatile String binariesDigest;
+
+    @SneakyThrows
+    static EmbeddedPostgresqlSnapshot of(EmbeddedPostgresqlTest annotation) {
+        var digest = MessageDigest.getInstance("SHA-256");
+        digest.update((System.getProperty("os.name") + System.getProperty("os.arch")).getBytes(UTF_8));
+        digest.update(getBinariesDigest().getBytes(UTF_8));
+        for (var location : annotation.migrationLocations()) {
+            var path = location.replaceFirst("^classpath:", "").replaceAll("^/+|/+$", "");
+            digest.update(path.getBytes(UTF_8));
+            for (var migration : findMigrations(path).entrySet()) {
+                digest.update(migration.getKey().getBytes(UTF_8));
+                try (var inputStream = migration.getValue().getInputStream()) {
+                    digest.update(inputStream.readAllBytes());
+                }
+            }
+        }
+        digest.update(String.valueOf(annotation.truncateTables()).getBytes(UTF_8));
+        digest.update(String.join(",", annotation.excludeTruncateTables()).getBytes(UTF_8));
+        var key = HexFormat.of().formatHex(digest.digest());
+        return new EmbeddedPostgresqlSnapshot(
+                getCacheDirectory().resolve(key),
+                List.of(annotation.excludeTruncateTables()),
+                annotation.truncateTables());
+    }
+
+    boolean exists() {
+        return Files.isDirectory(snapshotDirectory);
+    }
+
+    void restore(Path dataDirectory) {
+        copy(snapshotDirectory, dataDirectory);
+        log.info("Restored embedded PostgreSQL data directory from snapshot {}", snapshotDirectory);
+    }
+
+    /**
+     * Очищает таблицы перед остановкой кластера
+     *
+     * @return true, если миграции применены, таблицы очищаются между тестами и снапшот можно сохранить
+     * после остановки
+     */
+    @SneakyThrows
+    boolean prepare(String jdbcUrl, String username) {
+        if (!truncateTables) {
+            log.info("Skip embedded PostgreSQL snapshot: tables are not truncated between tests");
+            return false;
+        }
+        try (
+                var connection = DriverManager.getConnection(jdbcUrl, username, "");
+                var statement = connection.createStatement()) {
+            try (var resultSet = statement.executeQuery(MIGRATED_QUERY)) {
+                if (!resultSet.next() || !resultSet.getBoolean(1)) {
+                    log.info("Skip embedded PostgreSQL snapshot: flyway_schema_history not found");
+                    return false;
+                }
+            }
+            try (var resultSet = statement.executeQuery(FAILED_MIGRATIONS_QUERY)) {
+                if (!resultSet.next() || resultSet.getInt(1) > 0) {
+                    log.info("Skip embedded PostgreSQL snapshot: failed migrations found");
+                    return false;
+                }
+            }
+        }
+        PostgresqlDatabaseCleaner.cleanupDatabaseTables(jdbcUrl, username, "", excludedTables);
+        return true;
+    }
+
+    /**
+     * Сохраняет каталог данных остановленного кластера. Если снапшот с таким ключом уже сохранил
+     * другой процесс, копия удаляется
+     */
+    @SneakyThrows
+    void save(Path dataDirectory) {
+        if (exists()) {
+            return;
+        }
+        Files.createDirectories(snapshotDirectory.getParent());
+        var temporaryDirectory = snapshotDirectory.resolveSibling(
+                snapshotDirectory.getFileName() + "-" + UUID.randomUUID());
+        Files.createDirectory(temporaryDirectory);
+        try {
+            copy(dataDirectory, temporaryDirectory);
+            Files.move(temporaryDirectory, snapshotDirectory, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Saved embedded PostgreSQL snapshot {}", snapshotDirectory);
+        } catch (IOException ex) {
+            log.warn("Error when saving embedded PostgreSQL snapshot {}", snapshotDirectory, ex);
+        } finally {
+            FileSystemUtils.deleteRecursively(temporaryDirectory);
+        }
+    }
+
+    @SneakyThrows
+    void delete() {
+        FileSystemUtils.deleteRecursively(snapshotDirectory);
+    }
+
+    private static Path getCacheDirectory() {
+        var property = loadDefaultLibraryProperty(SNAPSHOT_DIRECTORY_PROPERTY);
+        return property.isBlank() || "null".equals(property)
+                ? Path.of(System.getProperty("java.io.tmpdir"), "testcontainers-annotations", "embedded-postgresql")
+                : Path.of(property);
+    }
+
+    /**
+     * Хэш содержимого архивов бинарников PostgreSQL. Версия сервера до запуска кластера неизвестна,
+     * а содержимое архива однозначно задает и версию, и сборку, в том числе если архив заменили
+     * по тому же пути. Считается один раз на JVM
+     */
+    @SneakyThrows
+    private static String getBinariesDigest() {
+        if (binariesDigest == null) {
+            synchronized (EmbeddedPostgresqlSnapshot.class) {
+                if (binariesDigest == null) {
+                    var digest = MessageDigest.getInstance("SHA-256");
+                    for (var resource : findResources(BINARIES_PATTERN)) {
+                        digest.update(resource.getFilename().getBytes(UTF_8));
+                        try (var inputStream = new DigestInputStream(resource.getInputStream(), digest)) {
+                            inputStream.transferTo(OutputStream.nullOutputStream());
+                        }
+                    }
+                    binariesDigest = HexFormat.of().formatHex(digest.digest());
+                }
+            }
+        }
+        return binariesDigest;
+    }
+
+    /**
+     * @return миграции по пути относительно каталога миграций, чтобы одинаковые имена файлов в разных
+     * подкаталогах и каталогах миграций давали разные ключи, а ключ не зависел от расположения classpath
+     */
+    private static Map<String, Resource> findMigrations(String location) throws IOException {
+        var roots = Arrays.stream(new PathMatchingResourcePatternResolver()
+                        .getResources("classpath*:" + location + "/"))
+                .map(EmbeddedPostgresqlSnapshot::getDescription)
+                .toList();
+        var migrations = new TreeMap<String, Resource>();
+        for (var resource : findResources("classpath*:" + location + "/**/*")) {
+            if (resource.isReadable()) {
+                var description = getDescription(resource);
+                var relativePath = roots.stream()
+                        .filter(description::startsWith)
+                        .findFirst()
+                        .map(root -> description.substring(root.length()))
+                        .orElseGet(() -> description.substring(
+                                description.lastIndexOf(location) + location.length()));
+                migrations.put(relativePath.replaceFirst("^/+", ""), resource);
+            }
+        }
+        return migrations;
+    }
+
+    private static List<Resource> findResources(String pattern) throws IOException {
+        return Arrays.stream(new PathMatchingResourcePatternResolver().getResources(pattern))
+                .sorted(Comparator.comparing(EmbeddedPostgresqlSnapshot::getDescription))
+                .toList();
+    }
+
+    @SneakyThrows
+    private static String getDescription(Resource resource) {
+        return resource.getURL().toString();
+    }
+
+    /**
+     * Копирует содержимое каталога через {@code cp --reflink=auto}, чтобы на файловых системах
+     * с copy-on-write (btrfs, xfs, zfs) копия не занимала место и создавалась мгновенно.
+     * Жесткие ссылки не используются, потому что PostgreSQL изменяет файлы данных на месте
+     * и испортил бы снапшот
+     */
+    @SneakyThrows
+    private static void copy(Path source, Path target) {
+        try {
+            var process = new ProcessBuilder(
+                    "cp", "-a", "--reflink=auto", source + "/.", target.toString())
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            if (process.waitFor(5, TimeUnit.MINUTES) && process.exitValue() == 0) {
+                return;
+            }
+            process.destroyForcibly();
+        } catch (IOException ex) {
+            log.debug("cp is not available, fallback to file copy", ex);
+        }
+        try (var paths = Files.walk(source)) {
+            for (var path : paths.toList()) {
+                var destination = target.resolve(source.relativize(path).toString());
+                if (Files.isDirectory(path)) {
+                    Files.createDirectories(destination);
+                } else {
+                    Files.copy(path, destination, StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.COPY_ATTRIBUTES);
+                }
+            }
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package dev.vality.testcontainers.annotations.postgresql;
 
+import dev.vality.testcontainers.annotations.postgresql.constants.PerformanceProfile;
+import dev.vality.testcontainers.annotations.postgresql.constants.ResetStrategy;
+import dev.vality.testcontainers.annotations.postgresql.constants.TruncateMode;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
@@ -80,6 +83,39 @@ public @interface EmbeddedPostgresqlTest {
      */
     String password() default "";
 
+    /**
+     * Переиспользовать один embedded PostgreSQL между тестовыми классами.
+     * Кластер запускается один раз на JVM для каждой конфигурации аннотации (база, пользователь, профиль,
+     * снапшот, миграции и параметры очистки) и останавливается при завершении JVM, а не после каждого класса,
+     * поэтому каждая отличающаяся конфигурация держит свой кластер до конца прогона.
+     * Данные между классами очищаются так же, как между тестами, если {@link #truncateTables()} = true
+     *
+     * @return true - embedded PostgreSQL общий для всех тестовых классов с такой же конфигурацией
+     */
+    boolean shared() default false;
+
+    /**
+     * Кэшировать каталог данных embedded PostgreSQL после применения миграций.
+     * Первый запуск стартует кластер с нуля и при остановке сохраняет мигрированный и очищенный каталог данных,
+     * следующие запуски стартуют из его копии, и Flyway не применяет миграции повторно.
+     * Снапшот пересоздается при изменении миграций из {@link #migrationLocations()} или версии PostgreSQL.
+     * Снапшот сохраняется только при {@link #truncateTables()} = true: без очистки в каталоге данных
+     * остались бы строки, записанные тестами.
+     * Каталог кэша задается параметром {@code testcontainers.postgresql.embedded.snapshot-directory},
+     * по умолчанию используется {@code java.io.tmpdir}
+     *
+     * @return true - embedded PostgreSQL стартует из кэшированного мигрированного каталога данных
+     */
+    boolean snapshot() default false;
+
+    /**
+     * Расположение миграций в classpath, по содержимому которых вычисляется ключ снапшота.
+     * Используется только если {@link #snapshot()} = true
+     * <p>
+     * пример — migrationLocations = {"db/migration", "db/seed"}
+     */
+    String[] migrationLocations() default {"db/migration"};
+
     /**
      * Очищать таблицы между тестами
      *
@@ -90,8 +126,60 @@ public @interface EmbeddedPostgresqlTest {
     /**
      * Таблицы, которые не нужно очищать между тестами.
      * Используется только если {@link #truncateTables()} = true
+     * <p>Партиционированная таблица очищается одним {@code TRUNCATE} корня вместе со всеми партициями, включая
+     * партицию по умолчанию. Если здесь указана партиция (например, партиция по умолчанию), вместо корня
+     * очищаются остальные листовые партиции дерева. Отсоединенная партиция — обычная таблица и очищается,
+     * если не указана здесь. Отдельного параметра для пропуска партиций нет
      * <p>
-     * пример — excludeTruncateTables = {"schema_history", "reference_data"}
+     * пример — excludeTruncateTables = {"schema_history", "reference_data", "invoice_default"}
      */
     String[] excludeTruncateTables() default {};
+
+    /**
+     * Способ очистки таблиц между тестами.
+     * Используется только если {@link #truncateTables()} = true
+     * <p>
+     * пример — truncateMode = TruncateMode.SINGLE_STATEMENT
+     *
+     * @see TruncateMode TruncateMode
+     */
+    TruncateMode truncateMode() default TruncateMode.PER_TABLE;
+
+    /**
+     * Способ возврата базы данных в исходное состояние между тестами.
+     * Используется только если {@link #truncateTables()} = true
+     * <p>
+     * пример — resetStrategy = ResetStrategy.ROLLBACK
+     *
+     * @see ResetStrategy ResetStrategy
+     */
+    ResetStrategy resetStrategy() default ResetStrategy.TRUNCATE;
+
+    /**
+     * Профиль настроек сервера PostgreSQL.
+     * По умолчанию берется из параметра {@code testcontainers.postgresql.performance-profile}
+     * <p>
+     * пример — performanceProfile = PerformanceProfile.NON_DURABLE
+     *
+     * @see PerformanceProfile PerformanceProfile
+     */
+    PerformanceProfile performanceProfile() default PerformanceProfile.DEFAULT;
+
+    /**
+     * Переводить пользовательские таблицы в режим {@code UNLOGGED} после применения миграций.
+     * Запись в такие таблицы не попадает в WAL, поэтому вставки выполняются заметно быстрее.
+     * Таблицы из {@link #excludeTruncateTables()} и таблицы Flyway не переводятся.
+     * Тестовый метод с аннотацией {@link PostgresqlLoggedTables} выполняется с таблицами в режиме {@code LOGGED}
+     *
+     * @return true - таблицы работают без записи в WAL
+     */
+    boolean unloggedTables() default false;
+
+    /**
+     * Количество баз данных в ротации.
+     * Используется только если {@link #resetStrategy()} = {@link ResetStrategy#ROTATION}
+     * <p>
+     * пример — rotationSize = 3
+     */
+    int rotationSize() default 2;
 }
@@ -1,5 +1,6 @@
 package dev.vality.testcontainers.annotations.postgresql;
 
+import dev.vality.testcontainers.annotations.postgresql.constants.ResetStrategy;
 import org.springframework.boot.test.util.TestPropertyValues;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.test.context.ContextConfigurationAttributes;
@@ -41,5 +42,27 @@ public class EmbeddedPostgresqlTestContextCustomizerFactory implements ContextCu
                         "flyway.postgresql.transactional.lock=false")
                 .and(annotation.properties())
                 .applyTo(context);
+        if (annotation.truncateTables() && annotation.resetStrategy() == ResetStrategy.ROLLBACK) {
+            context.getBeanFactory().addBeanPostProcessor(PostgresqlRollbackInterceptor.postProcessor());
+        }
+        if (annotation.unloggedTables()) {
+            PostgresqlTablesPersistence.registerListener(
+                    context,
+                    jdbcUrl,
+                    username,
+                    password,
+                    List.of(annotation.excludeTruncateTables()));
+        }
+        if (annotation.truncateTables() && annotation.resetStrategy() == ResetStrategy.ROTATION) {
+            new PostgresqlDatabaseRotation(
+                    databaseName -> postgresql.delegate().getJdbcUrl(username, databaseName),
+                    annotation.database(),
+                    username,
+                    password,
+                    List.of(annotation.excludeTruncateTables()),
+                    annotation.truncateMode(),
+                    Math.max(annotation.rotationSize(), 2))
+                    .register(context);
+        }
     }
 }
@@ -1,17 +1,29 @@
 package dev.vality.testcontainers.annotations.postgresql;
 
+import dev.vality.testcontainers.annotations.postgresql.constants.PerformanceProfile;
+import dev.vality.testcontainers.annotations.postgresql.constants.ResetStrategy;
 import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
 import lombok.SneakyThrows;
+import lombok.Synchronized;
+import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.AfterEachCallback;
 import org.junit.jupiter.api.extension.BeforeAllCallback;
 import org.junit.jupiter.api.extension.BeforeEachCallback;
 import org.junit.jupiter.api.extension.ExtensionContext;
 import org.junit.platform.commons.support.AnnotationSupport;
+import org.springframework.util.FileSystemUtils;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
-public class EmbeddedPostgresqlTestExtension implements BeforeAllCallback, BeforeEachCallback, AfterAllCallback {
+@Slf4j
+public class EmbeddedPostgresqlTestExtension
+        implements BeforeAllCallback, BeforeEachCallback, AfterEachCallback, AfterAllCallback {
 
     private static final ThreadLocal<EmbeddedPostgresql> THREAD_POSTGRESQL = new ThreadLocal<>();
 
@@ -23,23 +35,61 @@ public class EmbeddedPostgresqlTestExtension implements BeforeAllCallback, Befor
     @Override
     public void beforeEach(ExtensionContext context) {
         findAnnotation(context).ifPresent(annotation -> {
-            if (annotation.truncateTables()) {
-                var postgresql = getOrStart(annotation);
+            var postgresql = getOrStart(annotation);
+            if (annotation.truncateTables() && annotation.resetStrategy() == ResetStrategy.BASELINE) {
+                PostgresqlBaseline.reset(
+                        context,
+                        postgresql.jdbcUrl(),
+                        annotation.username(),
+                        annotation.password(),
+                        List.of(annotation.excludeTruncateTables()));
+            } else if (annotation.truncateTables() && annotation.resetStrategy() != ResetStrategy.ROTATION) {
                 PostgresqlDatabaseCleaner.cleanupDatabaseTables(
+                        postgresql.jdbcUrl(),
+                        annotation.username(),
+                        annotation.password(),
+                        List.of(annotation.excludeTruncateTables()),
+                        PostgresqlDatabaseCleaner.resolveTruncateMode(
+                                annotation.truncateMode(),
+                                annotation.resetStrategy()));
+            }
+            if (annotation.unloggedTables()) {
+                PostgresqlTablesPersistence.prepare(
+                        context,
                         postgresql.jdbcUrl(),
                         annotation.username(),
                         annotation.password(),
                         List.of(annotation.excludeTruncateTables()));
             }
+            if (annotation.truncateTables() && annotation.resetStrategy() == ResetStrategy.ROTATION) {
+                PostgresqlDatabaseRotation.rotate(context);
+            }
+            PostgresqlFixtureLoader.load(
+                    context,
+                    postgresql.jdbcUrl(),
+                    annotation.username(),
+                    annotation.password(),
+                    annotation.truncateTables());
+            if (annotation.truncateTables() && annotation.resetStrategy() == ResetStrategy.ROLLBACK) {
+                PostgresqlRollbackInterceptor.beginTransactions(context);
+            }
         });
     }
 
+    @Override
+    public void afterEach(ExtensionContext context) {
+        findAnnotation(context)
+                .filter(annotation -> annotation.truncateTables()
+                        && annotation.resetStrategy() == ResetStrategy.ROLLBACK)
+                .ifPresent(annotation -> PostgresqlRollbackInterceptor.rollbackTransactions(context));
+    }
+
     @Override
     public void afterAll(ExtensionContext context) {
         findAnnotation(context).ifPresent(annotation -> {
             var postgresql = THREAD_POSTGRESQL.get();
             THREAD_POSTGRESQL.remove();
-            if (postgresql != null) {
+            if (postgresql != null && !annotation.shared()) {
                 postgresql.close();
             }
         });
@@ -56,25 +106,147 @@ public class EmbeddedPostgresqlTestExtension implements BeforeAllCallback, Befor
     static EmbeddedPostgresql getOrStart(EmbeddedPostgresqlTest annotation) {
         var postgresql = THREAD_POSTGRESQL.get();
         if (postgresql == null) {
-            postgresql = EmbeddedPostgresql.start(annotation);
+            postgresql = annotation.shared()
+                    ? SharedEmbeddedPostgresql.acquire(annotation)
+                    : EmbeddedPostgresql.start(annotation);
             THREAD_POSTGRESQL.set(postgresql);
         }
         return postgresql;
     }
 
-    record EmbeddedPostgresql(EmbeddedPostgres delegate, String jdbcUrl) {
+    record EmbeddedPostgresql(
+            EmbeddedPostgres delegate,
+            String jdbcUrl,
+            String username,
+            Path snapshotDataDirectory,
+            EmbeddedPostgresqlSnapshot pendingSnapshot) {
+
+        private static final Path IN_MEMORY_DIRECTORY = Path.of("/dev/shm");
 
-        @SneakyThrows
         private static EmbeddedPostgresql start(EmbeddedPostgresqlTest annotation) {
-            var postgres = EmbeddedPostgres.start();
+            if (!annotation.snapshot()) {
+                return start(annotation, null);
+            }
+            var snapshot = EmbeddedPostgresqlSnapshot.of(annotation);
+            if (snapshot.exists()) {
+                try {
+                    return start(annotation, snapshot);
+                } catch (Exception ex) {
+                    log.warn("Error when starting embedded PostgreSQL from snapshot, fallback to initdb", ex);
+                    snapshot.delete();
+                }
+            }
+            return start(annotation, snapshot);
+        }
+
+        /**
+         * @param snapshot если снапшот существует, кластер запускается из его копии, иначе — с нуля,
+         *                 а снапшот сохраняется при остановке
+         */
+        @SneakyThrows
+        private static EmbeddedPostgresql start(
+                EmbeddedPostgresqlTest annotation,
+                EmbeddedPostgresqlSnapshot snapshot) {
+            var builder = EmbeddedPostgres.builder();
+            PostgresqlServerSettings.serverConfig(annotation.performanceProfile()).forEach(builder::setServerConfig);
+            Path dataDirectory = null;
+            if (PostgresqlServerSettings.isInMemory(annotation.performanceProfile())
+                    && Files.isWritable(IN_MEMORY_DIRECTORY)) {
+                dataDirectory = Files.createTempDirectory(IN_MEMORY_DIRECTORY, "embedded-postgresql-");
+            } else if (snapshot != null) {
+                dataDirectory = Files.createTempDirectory("embedded-postgresql-");
+            }
+            var restored = snapshot != null && snapshot.exists();
+            if (dataDirectory != null) {
+                builder.setDataDirectory(dataDirectory);
+                builder.setCleanDataDirectory(snapshot == null);
+            }
+            EmbeddedPostgres postgres;
+            try {
+                if (restored) {
+                    snapshot.restore(dataDirectory);
+                }
+                postgres = builder.start();
+            } catch (Exception ex) {
+                if (snapshot != null) {
+                    FileSystemUtils.deleteRecursively(dataDirectory);
+                }
+                throw ex;
+            }
             return new EmbeddedPostgresql(
                     postgres,
-                    postgres.getJdbcUrl(annotation.database(), annotation.username()));
+                    postgres.getJdbcUrl(annotation.database(), annotation.username()),
+                    annotation.username(),
+                    snapshot != null ? dataDirectory : null,
+                    restored ? null : snapshot);
         }
 
         @SneakyThrows
         private void close() {
+            var saveSnapshot = pendingSnapshot != null && pendingSnapshot.prepare(jdbcUrl, username);
+            PostgresqlDatabaseCleaner.closeConnections(jdbcUrl::equals);
             delegate.close();
+            if (saveSnapshot) {
+                pendingSnapshot.save(snapshotDataDirectory);
+            }
+            if (snapshotDataDirectory != null) {
+                FileSystemUtils.deleteRecursively(snapshotDataDirectory);
+            }
+        }
+    }
+
+    /**
+     * Кэш embedded PostgreSQL для {@link EmbeddedPostgresqlTest#shared()} на время жизни JVM — один кластер
+     * на каждую конфигурацию. Кластеры останавливаются только в shutdown hook'е JVM: контексты Spring
+     * тестовых классов кэшируются и продолжают ссылаться на кластер после завершения класса,
+     * поэтому остановка после последнего класса оставила бы их пулы без сервера.
+     * Каждая отличающаяся конфигурация держит свой кластер запущенным до завершения JVM
+     */
+    @Slf4j
+    private static class SharedEmbeddedPostgresql {
+
+        private static final Map<SharedKey, EmbeddedPostgresql> ENTRIES = new HashMap<>();
+        private static boolean shutdownHookRegistered;
+
+        @Synchronized
+        private static EmbeddedPostgresql acquire(EmbeddedPostgresqlTest annotation) {
+            if (!shutdownHookRegistered) {
+                Runtime.getRuntime().addShutdownHook(
+                        new Thread(SharedEmbeddedPostgresql::closeAll, "embedded-postgresql-shutdown"));
+                shutdownHookRegistered = true;
+            }
+            return ENTRIES.computeIfAbsent(SharedKey.of(annotation), key -> {
+                var postgresql = EmbeddedPostgresql.start(annotation);
+                log.debug("Started shared embedded PostgreSQL {}", postgresql.jdbcUrl());
+                return postgresql;
+            });
+        }
+
+        @Synchronized
+        private static void closeAll() {
+            ENTRIES.values().forEach(EmbeddedPostgresql::close);
+            ENTRIES.clear();
+        }
+
+        private record SharedKey(
+                String database,
+                String username,
+                PerformanceProfile performanceProfile,
+                boolean snapshot,
+                List<String> migrationLocations,
+                boolean truncateTables,
+                List<String> excludeTruncateTables) {
+
+            private static SharedKey of(EmbeddedPostgresqlTest annotation) {
+                return new SharedKey(
+                        annotation.database(),
+                        annotation.username(),
+                        PostgresqlServerSettings.resolve(annotation.performanceProfile()),
+                        annotation.snapshot(),
+                        List.of(annotation.migrationLocations()),
+                        annotation.truncateTables(),
+                        List.of(annotation.excludeTruncateTables()));
+            }
         }
     }
 }
@@ -0,0 +1,61 @@
+package dev.vality.testcontainers.annotations.postgresql;
+
+import dev.vality.testcontainers.annotations.postgresql.constants.PgBouncerPoolMode;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.Network;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.UUID;
+
+import static dev.vality.testcontainers.annotations.util.SpringApplicationPropertiesLoader.loadDefaultLibraryProperty;
+
+/**
+ * Контейнер PgBouncer, который проксирует подключения к {@link PostgresqlContainerExtension} через сеть
+ * {@link Network#SHARED}. Все базы данных PostgreSQL доступны через PgBouncer под теми же именами.
+ * Параметр {@code extra_float_digits}, который драйвер PostgreSQL передает при подключении, игнорируется
+ */
+public class PgBouncerContainerExtension extends GenericContainer<PgBouncerContainerExtension> {
+
+    public static final int PGBOUNCER_PORT = 5432;
+    private static final String PGBOUNCER_IMAGE_NAME = "edoburu/pgbouncer";
+    private static final String TAG_PROPERTY = "testcontainers.postgresql.pgbouncer.tag";
+    private static final int MAX_CLIENT_CONNECTIONS = 1000;
+
+    private final PostgresqlContainerExtension postgresql;
+
+    public PgBouncerContainerExtension(
+            PostgresqlContainerExtension postgresql,
+            PgBouncerPoolMode poolMode,
+            int poolSize) {
+        super(DockerImageName
+                .parse(PGBOUNCER_IMAGE_NAME)
+                .withTag(loadDefaultLibraryProperty(TAG_PROPERTY)));
+        this.postgresql = postgresql;
+        withNetworkAliases("pgbouncer-" + UUID.randomUUID());
+        withNetwork(Network.SHARED);
+        withExposedPorts(PGBOUNCER_PORT);
+        withEnv("DB_HOST", postgresql.getNetworkAlias());
+        withEnv("DB_PORT", String.valueOf(PostgreSQLContainer.POSTGRESQL_PORT));
+        withEnv("DB_USER", postgresql.getUsername());
+        withEnv("DB_PASSWORD", postgresql.getPassword());
+        withEnv("AUTH_TYPE", "scram-sha-256");
+        withEnv("POOL_MODE", poolMode.name().toLowerCase(Locale.ROOT));
+        withEnv("DEFAULT_POOL_SIZE", String.valueOf(poolSize));
+        withEnv("MAX_CLIENT_CONN", String.valueOf(MAX_CLIENT_CONNECTIONS));
+        withEnv("IGNORE_STARTUP_PARAMETERS", "extra_float_digits");
+        dependsOn(postgresql);
+        waitingFor(Wait.forListeningPort().withStartupTimeout(Duration.ofMinutes(1)));
+    }
+
+    public String getJdbcUrl(String databaseName) {
+        return "jdbc:postgresql://" + getHost() + ":" + getMappedPort(PGBOUNCER_PORT) + "/" + databaseName;
+    }
+
+    public String getJdbcUrl() {
+        return getJdbcUrl(postgresql.getDatabaseName());
+    }
+}
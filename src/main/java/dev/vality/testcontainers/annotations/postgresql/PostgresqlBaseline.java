@@ -0,0 +1,35 @@
+package dev.vality.testcontainers.annotations.postgresql;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Снимок данных для {@link dev.vality.testcontainers.annotations.postgresql.constants.ResetStrategy#BASELINE}
+ * <p>Перед первым тестом класса снимок сохраняется, то есть в него попадают данные, созданные при старте
+ * контекста и в {@code @BeforeAll}. Перед остальными тестами класса таблицы восстанавливаются из снимка
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+class PostgresqlBaseline {
+
+    private static final Map<String, Class<?>> CAPTURED_BY = new ConcurrentHashMap<>();
+
+    static void reset(
+            ExtensionContext context,
+            String jdbcUrl,
+            String username,
+            String password,
+            List<String> excludedTables) {
+        var testClass = context.getRequiredTestClass();
+        if (CAPTURED_BY.get(jdbcUrl) == testClass) {
+            PostgresqlDatabaseCleaner.restoreBaseline(jdbcUrl, username, password, excludedTables);
+        } else {
+            PostgresqlDatabaseCleaner.captureBaseline(jdbcUrl, username, password, excludedTables);
+            CAPTURED_BY.put(jdbcUrl, testClass);
+        }
+    }
+}
@@ -1,13 +1,31 @@
 package dev.vality.testcontainers.annotations.postgresql;
 
+import dev.vality.testcontainers.annotations.postgresql.constants.PerformanceProfile;
+import dev.vality.testcontainers.annotations.postgresql.constants.StatementStatistics;
+import dev.vality.testcontainers.annotations.postgresql.constants.TruncateMode;
 import lombok.SneakyThrows;
+import lombok.Synchronized;
 import lombok.extern.slf4j.Slf4j;
+import org.awaitility.Awaitility;
 import org.testcontainers.containers.Network;
 import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.lifecycle.Startables;
 import org.testcontainers.utility.DockerImageName;
 
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static dev.vality.testcontainers.annotations.util.SpringApplicationPropertiesLoader.loadDefaultLibraryProperty;
 
@@ -16,17 +34,351 @@ public class PostgresqlContainerExtension extends PostgreSQLContainer<Postgresql
 
     private static final String POSTGRESQL_IMAGE_NAME = "postgres";
     private static final String TAG_PROPERTY = "testcontainers.postgresql.tag";
+    private static final String SEQ_SCAN_DETECTION_PROPERTY = "testcontainers.postgresql.seq-scan-detection";
+    private static final String IN_MEMORY_DATA_DIRECTORY = "/var/lib/postgresql/data";
+    private static final String TERMINATE_CONNECTIONS_QUERY = "SELECT pg_terminate_backend(pid) " +
+            "FROM pg_stat_activity WHERE datname = ? AND pid <> pg_backend_pid()";
+    private static final String ALLOW_REPLICATION_COMMAND =
+            "echo 'host replication all all md5' >> \"$PGDATA/pg_hba.conf\"";
+    private static final String OBJECT_IN_USE_STATE = "55006";
+    private static final int CREATE_DATABASE_ATTEMPTS = 10;
+    private static final Duration CREATE_DATABASE_RETRY_INTERVAL = Duration.ofMillis(100);
+    private static final String CURRENT_LSN_QUERY = "SELECT pg_current_wal_lsn()::text";
+    private static final String REPLAY_LAG_QUERY =
+            "SELECT pg_wal_lsn_diff(?::pg_lsn, coalesce(pg_last_wal_replay_lsn(), '0/0'))::bigint";
+    private static final ExecutorService DROP_DATABASE_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        var thread = new Thread(runnable, "postgresql-drop-database");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicInteger databaseCounter = new AtomicInteger();
+    private final List<PostgresqlReplicaContainer> replicas = new ArrayList<>();
+    private final String networkAlias = "postgresql-" + UUID.randomUUID();
+    private final StatementStatistics statementStatistics;
+    private final boolean seqScanDetection;
+    private final CompletableFuture<String> template = new CompletableFuture<>();
+    private String templateSourceDatabaseName;
+    private BlockingQueue<String> databasePool;
 
     public PostgresqlContainerExtension() {
+        this(PerformanceProfile.DEFAULT);
+    }
+
+    public PostgresqlContainerExtension(PerformanceProfile performanceProfile) {
         super(DockerImageName
                 .parse(POSTGRESQL_IMAGE_NAME)
                 .withTag(loadDefaultLibraryProperty(TAG_PROPERTY)));
-        withNetworkAliases("postgresql-" + UUID.randomUUID());
+        withNetworkAliases(networkAlias);
         withNetwork(Network.SHARED);
+        statementStatistics = PostgresqlServerSettings.statementStatistics();
+        seqScanDetection = Boolean.parseBoolean(loadDefaultLibraryProperty(SEQ_SCAN_DETECTION_PROPERTY).trim());
+        // команда заменяет команду Testcontainers по умолчанию "postgres -c fsync=off",
+        // поэтому fsync=off сохраняется, если профиль не задает fsync сам
+        var serverConfig = new LinkedHashMap<String, String>();
+        serverConfig.put("fsync", "off");
+        serverConfig.putAll(PostgresqlServerSettings.serverConfig(performanceProfile));
+        serverConfig.putAll(PostgresqlServerSettings.statementStatisticsConfig(statementStatistics));
+        var command = new ArrayList<String>();
+        command.add("postgres");
+        serverConfig.forEach((key, value) -> {
+            command.add("-c");
+            command.add(key + "=" + value);
+        });
+        setCommand(command.toArray(String[]::new));
+        if (PostgresqlServerSettings.isInMemory(performanceProfile)) {
+            withEnv("PGDATA", IN_MEMORY_DATA_DIRECTORY + "/pgdata");
+            withTmpFs(Map.of(IN_MEMORY_DATA_DIRECTORY, "rw"));
+        }
+    }
+
+    public String getNetworkAlias() {
+        return networkAlias;
+    }
+
+    public boolean isStatementStatisticsEnabled() {
+        return statementStatistics != StatementStatistics.OFF;
+    }
+
+    /**
+     * @see PostgresqlSeqScanDetector PostgresqlSeqScanDetector
+     */
+    public boolean isSeqScanDetectionEnabled() {
+        return seqScanDetection;
+    }
+
+    public String getJdbcUrl(String databaseName) {
+        return "jdbc:postgresql://" + getHost() + ":" + getMappedPort(POSTGRESQL_PORT) + "/" + databaseName
+                + constructUrlParameters("?", "&");
     }
 
     @SneakyThrows
     public void cleanupDatabaseTables(List<String> excludedTables) {
-        PostgresqlDatabaseCleaner.cleanupDatabaseTables(getJdbcUrl(), getUsername(), getPassword(), excludedTables);
+        cleanupDatabaseTables(excludedTables, TruncateMode.PER_TABLE);
+    }
+
+    @SneakyThrows
+    public void cleanupDatabaseTables(List<String> excludedTables, TruncateMode truncateMode) {
+        cleanupDatabaseTables(getDatabaseName(), excludedTables, truncateMode);
+    }
+
+    public void cleanupDatabaseTables(String databaseName, List<String> excludedTables, TruncateMode truncateMode) {
+        PostgresqlDatabaseCleaner.cleanupDatabaseTables(
+                getJdbcUrl(databaseName),
+                getUsername(),
+                getPassword(),
+                excludedTables,
+                truncateMode);
+    }
+
+    /**
+     * @see PostgresqlDataGenerator PostgresqlDataGenerator
+     */
+    public long generateTableRows(String table, long rows) {
+        return PostgresqlDataGenerator.generate(getJdbcUrl(), getUsername(), getPassword(), table, rows);
+    }
+
+    public long generateTableRows(Long seed, String table, long rows) {
+        return PostgresqlDataGenerator.generate(seed, getJdbcUrl(), getUsername(), getPassword(), table, rows);
+    }
+
+    /**
+     * @see PostgresqlDatabaseCleaner#benchmarkTruncateModes PostgresqlDatabaseCleaner.benchmarkTruncateModes
+     */
+    public Map<TruncateMode, Double> benchmarkTruncateModes(
+            List<String> excludedTables,
+            int iterations,
+            Runnable seed) {
+        return PostgresqlDatabaseCleaner.benchmarkTruncateModes(
+                getJdbcUrl(),
+                getUsername(),
+                getPassword(),
+                excludedTables,
+                iterations,
+                seed);
+    }
+
+    /**
+     * Первый вызов создает пустую базу-источник и возвращает ее — ее мигрирует первый тестовый класс,
+     * после чего из нее один раз готовится шаблон ({@link #prepareTemplate}). Последующие вызовы дожидаются
+     * шаблона и возвращают новую базу, склонированную из него. Сам шаблон ни одному классу не выдается
+     */
+    public String createDatabaseFromTemplate(List<String> excludedTables, TruncateMode truncateMode) {
+        synchronized (template) {
+            if (templateSourceDatabaseName == null) {
+                templateSourceDatabaseName = getDatabaseName() + "_" + databaseCounter.incrementAndGet();
+                execute("CREATE DATABASE " + templateSourceDatabaseName);
+                log.info("Created template source database {}", templateSourceDatabaseName);
+                return templateSourceDatabaseName;
+            }
+        }
+        var templateDatabaseName = template.join();
+        var databaseName = getDatabaseName() + "_" + databaseCounter.incrementAndGet();
+        createDatabase(databaseName, templateDatabaseName);
+        log.info("Created database {} from template {}", databaseName, templateDatabaseName);
+        return databaseName;
+    }
+
+    /**
+     * Копирует мигрированную базу-источник в шаблон и очищает его. Вызывается после старта контекста
+     * класса-источника, пока его тесты еще не начались, и повторно (без эффекта) после этого класса —
+     * на случай, если контекст не стартовал. Для других баз ничего не делает
+     */
+    @Synchronized
+    public void prepareTemplate(String sourceDatabaseName, List<String> excludedTables, TruncateMode truncateMode) {
+        if (!sourceDatabaseName.equals(templateSourceDatabaseName) || template.isDone()) {
+            return;
+        }
+        var templateDatabaseName = getDatabaseName() + "_template";
+        try {
+            createDatabase(templateDatabaseName, sourceDatabaseName);
+            cleanupDatabaseTables(templateDatabaseName, excludedTables, truncateMode);
+            // соединение очистки к шаблону не должно оставаться открытым, иначе клонирование завершится ошибкой
+            // "source database is being accessed by other users"
+            PostgresqlDatabaseCleaner.closeConnections(getJdbcUrl(templateDatabaseName)::equals);
+            log.info("Prepared template database {} from {}", templateDatabaseName, sourceDatabaseName);
+            template.complete(templateDatabaseName);
+        } catch (RuntimeException ex) {
+            template.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+    /**
+     * При первом вызове создает пул из {@code poolSize} баз данных, затем ожидает и возвращает свободную базу
+     */
+    @SneakyThrows
+    public String leaseDatabase(int poolSize) {
+        return getOrCreateDatabasePool(poolSize).take();
+    }
+
+    public void releaseDatabase(String databaseName) {
+        databasePool.add(databaseName);
+    }
+
+    public CompletableFuture<Void> dropDatabaseAsync(String databaseName) {
+        var jdbcUrl = getJdbcUrl(databaseName);
+        PostgresqlDatabaseCleaner.closeConnections(jdbcUrl::equals);
+        return CompletableFuture.runAsync(
+                        () -> execute("DROP DATABASE IF EXISTS %s WITH (FORCE)".formatted(databaseName)),
+                        DROP_DATABASE_EXECUTOR)
+                .whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        log.warn("Error when dropping database {}", databaseName, ex);
+                    }
+                });
+    }
+
+    /**
+     * Запускает недостающие реплики на потоковой репликации, чтобы их стало не меньше {@code count}
+     *
+     * @return первые {@code count} реплик
+     */
+    @Synchronized
+    @SneakyThrows
+    public List<PostgresqlReplicaContainer> startReplicas(int count) {
+        if (replicas.isEmpty() && count > 0) {
+            var result = execInContainer("bash", "-c", ALLOW_REPLICATION_COMMAND);
+            if (result.getExitCode() != 0) {
+                throw new IllegalStateException("Unable to allow replication connections: " + result.getStderr());
+            }
+            execute("SELECT pg_reload_conf()");
+        }
+        var newReplicas = new ArrayList<PostgresqlReplicaContainer>();
+        while (replicas.size() + newReplicas.size() < count) {
+            newReplicas.add(new PostgresqlReplicaContainer(this));
+        }
+        if (!newReplicas.isEmpty()) {
+            Startables.deepStart(newReplicas).join();
+            replicas.addAll(newReplicas);
+            log.info("Started {} streaming replicas", newReplicas.size());
+        }
+        return List.copyOf(replicas.subList(0, Math.min(count, replicas.size())));
+    }
+
+    @Synchronized
+    public List<PostgresqlReplicaContainer> getReplicas() {
+        return List.copyOf(replicas);
+    }
+
+    /**
+     * @return отставание реплики в байтах WAL: разница между {@code pg_current_wal_lsn()} основного сервера
+     * и {@code pg_last_wal_replay_lsn()} реплики
+     */
+    public long getReplicationLag(PostgresqlReplicaContainer replica) {
+        return getReplayLag(replica, getCurrentWalLsn());
+    }
+
+    /**
+     * @return наибольшее отставание среди запущенных реплик в байтах WAL
+     */
+    public long getReplicationLag() {
+        var currentWalLsn = getCurrentWalLsn();
+        return getReplicas().stream()
+                .mapToLong(replica -> getReplayLag(replica, currentWalLsn))
+                .max()
+                .orElse(0);
+    }
+
+    /**
+     * Ожидает, пока все реплики применят WAL, записанный основным сервером к моменту вызова
+     */
+    public void awaitReplication(Duration timeout) {
+        var currentWalLsn = getCurrentWalLsn();
+        var replicasToAwait = getReplicas();
+        Awaitility.await()
+                .atMost(timeout)
+                .pollInterval(Duration.ofMillis(50))
+                .until(() -> replicasToAwait.stream().allMatch(replica -> getReplayLag(replica, currentWalLsn) <= 0));
+    }
+
+    @Override
+    public void stop() {
+        getReplicas().forEach(PostgresqlReplicaContainer::stop);
+        if (isRunning()) {
+            var jdbcUrlPrefix = "jdbc:postgresql://" + getHost() + ":" + getMappedPort(POSTGRESQL_PORT) + "/";
+            PostgresqlDatabaseCleaner.closeConnections(jdbcUrl -> jdbcUrl.startsWith(jdbcUrlPrefix));
+        }
+        super.stop();
+    }
+
+    @Synchronized
+    private BlockingQueue<String> getOrCreateDatabasePool(int poolSize) {
+        if (databasePool != null) {
+            return databasePool;
+        }
+        var pool = new LinkedBlockingQueue<String>();
+        for (var i = 1; i <= poolSize; i++) {
+            var databaseName = getDatabaseName() + "_pool_" + i;
+            execute("CREATE DATABASE " + databaseName);
+            pool.add(databaseName);
+        }
+        log.info("Created pool of {} databases", poolSize);
+        databasePool = pool;
+        return databasePool;
+    }
+
+    /**
+     * Копирует базу через {@code CREATE DATABASE ... TEMPLATE}. Соединения к исходной базе завершаются
+     * непосредственно перед каждой попыткой, а если пул приложения успел переподключиться,
+     * попытка повторяется
+     */
+    @SneakyThrows
+    private void createDatabase(String databaseName, String sourceDatabaseName) {
+        for (var attempt = 1; ; attempt++) {
+            terminateConnections(sourceDatabaseName);
+            try (
+                    var connection = DriverManager.getConnection(getJdbcUrl(), getUsername(), getPassword());
+                    var statement = connection.createStatement()) {
+                statement.execute("CREATE DATABASE %s TEMPLATE %s".formatted(databaseName, sourceDatabaseName));
+                return;
+            } catch (SQLException ex) {
+                if (!OBJECT_IN_USE_STATE.equals(ex.getSQLState()) || attempt == CREATE_DATABASE_ATTEMPTS) {
+                    throw ex;
+                }
+                Thread.sleep(CREATE_DATABASE_RETRY_INTERVAL.toMillis());
+            }
+        }
+    }
+
+    @SneakyThrows
+    private void terminateConnections(String databaseName) {
+        try (
+                var connection = DriverManager.getConnection(getJdbcUrl(), getUsername(), getPassword());
+                var statement = connection.prepareStatement(TERMINATE_CONNECTIONS_QUERY)) {
+            statement.setString(1, databaseName);
+            statement.execute();
+        }
+    }
+
+    @SneakyThrows
+    private String getCurrentWalLsn() {
+        try (
+                var connection = DriverManager.getConnection(getJdbcUrl(), getUsername(), getPassword());
+                var statement = connection.createStatement();
+                var resultSet = statement.executeQuery(CURRENT_LSN_QUERY)) {
+            resultSet.next();
+            return resultSet.getString(1);
+        }
+    }
+
+    @SneakyThrows
+    private long getReplayLag(PostgresqlReplicaContainer replica, String walLsn) {
+        try (
+                var connection = DriverManager.getConnection(replica.getJdbcUrl(), getUsername(), getPassword());
+                var statement = connection.prepareStatement(REPLAY_LAG_QUERY)) {
+            statement.setString(1, walLsn);
+            try (var resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getLong(1);
+            }
+        }
+    }
+
+    @SneakyThrows
+    private void execute(String sql) {
+        try (
+                var connection = DriverManager.getConnection(getJdbcUrl(), getUsername(), getPassword());
+                var statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
     }
 }
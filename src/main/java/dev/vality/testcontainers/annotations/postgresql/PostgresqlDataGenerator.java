@@ -0,0 +1,506 @@
+package dev.vality.testcontainers.annotations.postgresql;
+
+import dev.vality.testcontainers.annotations.util.RandomBeans;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Генератор синтетических данных для нагрузочных тестов DAO на реалистичных объемах
+ * <p>Колонки, типы, {@code NOT NULL}, уникальные индексы и внешние ключи таблицы читаются из каталога
+ * запущенного PostgreSQL. Строки генерируются детерминированно от seed (по умолчанию
+ * {@link RandomBeans#DEFAULT_SEED}) и передаются серверу через {@code COPY ... FROM STDIN} порциями,
+ * поэтому расход памяти не зависит от количества строк
+ * <ul>
+ * <li>identity, generated колонки и колонки с {@code nextval(...)} по умолчанию не заполняются;
+ * <li>колонки уникальных индексов заполняются от номера строки: числа — начиная с максимального значения
+ * в таблице, остальные типы — начиная с количества строк в таблице. Если ни одна колонка уникального индекса
+ * не может дать нужное число новых значений (например, enum, bool, inet или int2 больше 32767),
+ * генерация сразу завершается ошибкой;
+ * <li>колонки внешних ключей заполняются значениями из первых {@value #REFERENCE_SAMPLE_SIZE} строк
+ * таблицы, на которую они ссылаются, поэтому ее нужно заполнить раньше;
+ * <li>nullable колонки получают {@code NULL} примерно в каждой десятой строке;
+ * <li>колонки неподдерживаемых типов не заполняются, если у них есть значение по умолчанию
+ * или они допускают {@code NULL};
+ * <li>ограничения {@code CHECK} не учитываются
+ * </ul>
+ * <pre> {@code
+ * PostgresqlDataGenerator.generate(jdbcUrl, username, password, "currency", 200);
+ * PostgresqlDataGenerator.generate(jdbcUrl, username, password, "invoice", 10_000_000);
+ * }</pre>
+ */
+@Slf4j
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class PostgresqlDataGenerator {
+
+    private static final int REFERENCE_SAMPLE_SIZE = 10_000;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int NULL_RATE = 10;
+    private static final String NULL = "\\N";
+    private static final LocalDateTime BASE_DATE_TIME = LocalDateTime.of(2020, 1, 1, 0, 0);
+    private static final long DATE_TIME_RANGE_SECONDS = Duration.ofDays(5 * 365).toSeconds();
+    private static final String COLUMNS_QUERY = """
+            SELECT a.attname,
+                   bt.typname,
+                   bt.typcategory,
+                   a.attnotnull OR t.typnotnull,
+                   CASE WHEN t.typtype = 'd' THEN t.typtypmod ELSE a.atttypmod END,
+                   a.attidentity <> '' OR a.attgenerated <> ''
+                       OR coalesce(pg_get_expr(d.adbin, d.adrelid), '') LIKE 'nextval(%',
+                   d.adbin IS NOT NULL OR t.typdefaultbin IS NOT NULL,
+                   EXISTS (SELECT 1
+                           FROM pg_index i
+                           WHERE i.indrelid = a.attrelid AND i.indisunique AND a.attnum = ANY (i.indkey)),
+                   ARRAY(SELECT e.enumlabel FROM pg_enum e WHERE e.enumtypid = bt.oid ORDER BY e.enumsortorder)
+            FROM pg_attribute a
+                     JOIN pg_type t ON t.oid = a.atttypid
+                     JOIN pg_type bt ON bt.oid = CASE WHEN t.typtype = 'd' THEN t.typbasetype ELSE t.oid END
+                     LEFT JOIN pg_attrdef d ON d.adrelid = a.attrelid AND d.adnum = a.attnum
+            WHERE a.attrelid = ?::regclass
+              AND a.attnum > 0
+              AND NOT a.attisdropped
+            ORDER BY a.attnum
+            """;
+    private static final String FOREIGN_KEYS_QUERY = """
+            SELECT ARRAY(SELECT a.attname
+                         FROM unnest(c.conkey) WITH ORDINALITY k(attnum, n)
+                                  JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = k.attnum
+                         ORDER BY k.n),
+                   c.confrelid::regclass::text,
+                   ARRAY(SELECT a.attname
+                         FROM unnest(c.confkey) WITH ORDINALITY k(attnum, n)
+                                  JOIN pg_attribute a ON a.attrelid = c.confrelid AND a.attnum = k.attnum
+                         ORDER BY k.n)
+            FROM pg_constraint c
+            WHERE c.conrelid = ?::regclass
+              AND c.contype = 'f'
+            """;
+    private static final String UNIQUE_INDEXES_QUERY = """
+            SELECT i.indexrelid::regclass::text,
+                   ARRAY(SELECT a.attname
+                         FROM unnest(i.indkey) WITH ORDINALITY k(attnum, n)
+                                  JOIN pg_attribute a ON a.attrelid = i.indrelid AND a.attnum = k.attnum
+                         WHERE k.n <= i.indnkeyatts
+                         ORDER BY k.n)
+            FROM pg_index i
+            WHERE i.indrelid = ?::regclass
+              AND i.indisunique
+              AND NOT 0 = ANY (i.indkey)
+            """;
+    private static final String NOT_NULL_QUERY =
+            "SELECT bool_or(attnotnull) FROM pg_attribute WHERE attrelid = ?::regclass AND attname = ANY (?)";
+
+    public static long generate(String jdbcUrl, String username, String password, String table, long rows) {
+        return generate(RandomBeans.DEFAULT_SEED, jdbcUrl, username, password, table, rows);
+    }
+
+    /**
+     * Генерирует и загружает {@code rows} строк в таблицу
+     *
+     * @return количество загруженных строк
+     */
+    @SneakyThrows
+    public static long generate(
+            Long seed,
+            String jdbcUrl,
+            String username,
+            String password,
+            String table,
+            long rows) {
+        var startedAt = System.nanoTime();
+        try (var connection = DriverManager.getConnection(jdbcUrl, username, password)) {
+            var tableColumns = getColumns(connection, table);
+            var uniqueColumns = tableColumns.stream()
+                    .filter(Column::unique)
+                    .map(Column::name)
+                    .toList();
+            var references = getReferences(connection, table, uniqueColumns);
+            verifyUniqueIndexes(connection, table, rows, tableColumns, references);
+            var referenceColumns = references.stream()
+                    .flatMap(reference -> reference.columns().stream())
+                    .toList();
+            var columns = tableColumns.stream()
+                    .filter(column -> !referenceColumns.contains(column.name()))
+                    .filter(column -> column.generator() != null)
+                    .toList();
+            var columnNames = new ArrayList<String>();
+            references.forEach(reference -> reference.columns().forEach(name -> columnNames.add(quote(name))));
+            columns.forEach(column -> columnNames.add(quote(column.name())));
+            var sql = "COPY %s (%s) FROM STDIN".formatted(table, String.join(", ", columnNames));
+            var random = new SplittableRandom(seed);
+            var copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql);
+            try {
+                var buffer = new StringBuilder(BUFFER_SIZE + 1024);
+                var row = new ArrayList<String>(columnNames.size());
+                for (long index = 0; index < rows; index++) {
+                    row.clear();
+                    for (var reference : references) {
+                        reference.next(random, index, row);
+                    }
+                    for (var column : columns) {
+                        row.add(column.next(random, index));
+                    }
+                    buffer.append(String.join("\t", row)).append('\n');
+                    if (buffer.length() >= BUFFER_SIZE) {
+                        var bytes = buffer.toString().getBytes(UTF_8);
+                        copyIn.writeToCopy(bytes, 0, bytes.length);
+                        buffer.setLength(0);
+                    }
+                }
+                var bytes = buffer.toString().getBytes(UTF_8);
+                copyIn.writeToCopy(bytes, 0, bytes.length);
+                var copied = copyIn.endCopy();
+                log.debug("Generated {} rows into {} in {} ms",
+                        copied,
+                        table,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+                return copied;
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        }
+    }
+
+    @SneakyThrows
+    private static List<Column> getColumns(Connection connection, String table) {
+        var columns = new ArrayList<Column>();
+        Long rowCount = null;
+        try (var statement = connection.prepareStatement(COLUMNS_QUERY)) {
+            statement.setString(1, table);
+            try (var resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    var name = resultSet.getString(1);
+                    var typeName = resultSet.getString(2);
+                    var notNull = resultSet.getBoolean(4);
+                    var unique = resultSet.getBoolean(8);
+                    var skipped = resultSet.getBoolean(6);
+                    var category = resultSet.getString(3);
+                    var typeModifier = resultSet.getInt(5);
+                    var enumLabels = (String[]) resultSet.getArray(9).getArray();
+                    long offset = 0;
+                    if (unique && !skipped && isNumeric(typeName)) {
+                        offset = getMaxValue(connection, table, name) + 1;
+                    } else if (unique && !skipped) {
+                        rowCount = rowCount == null ? getRowCount(connection, table) : rowCount;
+                        offset = rowCount;
+                    }
+                    var generator = skipped
+                            ? null
+                            : getGenerator(typeName, category, typeModifier, unique, offset, enumLabels);
+                    if (generator == null && notNull && !resultSet.getBoolean(7) && !skipped) {
+                        throw new IllegalArgumentException("Unsupported type %s of not null column %s.%s"
+                                .formatted(typeName, table, name));
+                    }
+                    var capacity = getCapacity(typeName, category, typeModifier, enumLabels);
+                    var available = generator == null || capacity == Long.MAX_VALUE
+                            ? Long.MAX_VALUE
+                            : Math.max(capacity - offset, 0);
+                    columns.add(new Column(name, !notNull && !unique, unique, available, generator));
+                }
+            }
+        }
+        return columns;
+    }
+
+    @SneakyThrows
+    private static List<Reference> getReferences(Connection connection, String table, List<String> uniqueColumns) {
+        var references = new ArrayList<Reference>();
+        var referenceColumns = new ArrayList<String>();
+        try (var statement = connection.prepareStatement(FOREIGN_KEYS_QUERY)) {
+            statement.setString(1, table);
+            try (var resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    var columns = List.of((String[]) resultSet.getArray(1).getArray());
+                    if (columns.stream().anyMatch(referenceColumns::contains)) {
+                        continue;
+                    }
+                    var referencedTable = resultSet.getString(2);
+                    var referencedColumns = List.of((String[]) resultSet.getArray(3).getArray());
+                    var values = getReferencedValues(connection, referencedTable, referencedColumns);
+                    if (values.isEmpty() && isNotNull(connection, table, columns)) {
+                        throw new IllegalStateException("Referenced table %s is empty, generate it before %s"
+                                .formatted(referencedTable, table));
+                    }
+                    referenceColumns.addAll(columns);
+                    references.add(new Reference(
+                            columns,
+                            columns.stream().anyMatch(uniqueColumns::contains),
+                            values));
+                }
+            }
+        }
+        return references;
+    }
+
+    /**
+     * Каждая колонка уникального индекса заполняется своими неповторяющимися значениями, поэтому индекс
+     * не нарушается, пока хотя бы одна его колонка может дать {@code rows} новых значений
+     */
+    @SneakyThrows
+    private static void verifyUniqueIndexes(
+            Connection connection,
+            String table,
+            long rows,
+            List<Column> columns,
+            List<Reference> references) {
+        var available = new HashMap<String, Long>();
+        columns.forEach(column -> available.put(column.name(), column.available()));
+        references.forEach(reference -> reference.columns()
+                .forEach(column -> available.put(column, (long) reference.values().size())));
+        try (var statement = connection.prepareStatement(UNIQUE_INDEXES_QUERY)) {
+            statement.setString(1, table);
+            try (var resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    var indexColumns = List.of((String[]) resultSet.getArray(2).getArray());
+                    if (indexColumns.stream().allMatch(column -> available.getOrDefault(column, 0L) < rows)) {
+                        throw new IllegalArgumentException(
+                                "Unique index %s of %s can't get %d new distinct values from columns %s"
+                                        .formatted(resultSet.getString(1), table, rows, indexColumns));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Значения берутся в порядке ключа, чтобы выборка не зависела от физического расположения строк
+     */
+    @SneakyThrows
+    private static List<String[]> getReferencedValues(Connection connection, String table, List<String> columns) {
+        var quoted = columns.stream().map(PostgresqlDataGenerator::quote).toList();
+        var sql = "SELECT %s FROM %s WHERE %s ORDER BY %s LIMIT %d".formatted(
+                quoted.stream().map(column -> column + "::text").collect(Collectors.joining(", ")),
+                table,
+                quoted.stream().map(column -> column + " IS NOT NULL").collect(Collectors.joining(" AND ")),
+                String.join(", ", quoted),
+                REFERENCE_SAMPLE_SIZE);
+        var values = new ArrayList<String[]>();
+        try (var statement = connection.createStatement(); var resultSet = statement.executeQuery(sql)) {
+            while (resultSet.next()) {
+                var value = new String[columns.size()];
+                for (var i = 0; i < value.length; i++) {
+                    value[i] = escape(resultSet.getString(i + 1));
+                }
+                values.add(value);
+            }
+        }
+        return values;
+    }
+
+    @SneakyThrows
+    private static boolean isNotNull(Connection connection, String table, List<String> columns) {
+        try (var statement = connection.prepareStatement(NOT_NULL_QUERY)) {
+            statement.setString(1, table);
+            statement.setArray(2, connection.createArrayOf("text", columns.toArray()));
+            try (var resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getBoolean(1);
+            }
+        }
+    }
+
+    @SneakyThrows
+    private static long getMaxValue(Connection connection, String table, String column) {
+        var sql = "SELECT ceil(coalesce(max(%s), 0))::bigint FROM %s".formatted(quote(column), table);
+        try (var statement = connection.createStatement(); var resultSet = statement.executeQuery(sql)) {
+            return resultSet.next() ? resultSet.getLong(1) : 0;
+        }
+    }
+
+    @SneakyThrows
+    private static long getRowCount(Connection connection, String table) {
+        var sql = "SELECT count(*) FROM %s".formatted(table);
+        try (var statement = connection.createStatement(); var resultSet = statement.executeQuery(sql)) {
+            return resultSet.next() ? resultSet.getLong(1) : 0;
+        }
+    }
+
+    private static boolean isNumeric(String typeName) {
+        return List.of("int2", "int4", "int8", "numeric").contains(typeName);
+    }
+
+    /**
+     * @return количество различных значений, которые генератор может выдать для уникальной колонки,
+     * или {@link Long#MAX_VALUE}, если оно не ограничено
+     */
+    private static long getCapacity(String typeName, String category, int typeModifier, String[] enumLabels) {
+        if ("E".equals(category)) {
+            return enumLabels.length;
+        }
+        if ("A".equals(category)) {
+            return 1;
+        }
+        return switch (typeName) {
+            case "bool" -> 2;
+            case "int2" -> Short.MAX_VALUE + 1L;
+            case "int4" -> Integer.MAX_VALUE + 1L;
+            case "numeric" -> typeModifier > 0
+                    ? (long) Math.pow(10, Math.min((typeModifier - 4) >> 16, 18) - ((typeModifier - 4) & 0xffff))
+                    : Long.MAX_VALUE;
+            case "text", "varchar", "bpchar", "name", "citext" -> typeModifier > 4 && typeModifier - 4 < 12
+                    ? (long) Math.pow(Character.MAX_RADIX, typeModifier - 4)
+                    : Long.MAX_VALUE;
+            case "time" -> 86_400;
+            case "inet" -> 1L << 24;
+            default -> Long.MAX_VALUE;
+        };
+    }
+
+    /**
+     * @return генератор значений колонки в текстовом формате {@code COPY} или null, если тип не поддерживается
+     */
+    private static ValueGenerator getGenerator(
+            String typeName,
+            String category,
+            int typeModifier,
+            boolean unique,
+            long offset,
+            String[] enumLabels) {
+        if ("E".equals(category)) {
+            return (random, index) -> escape(enumLabels[unique
+                    ? (int) ((offset + index) % enumLabels.length)
+                    : random.nextInt(enumLabels.length)]);
+        }
+        if ("A".equals(category)) {
+            return (random, index) -> "{}";
+        }
+        return switch (typeName) {
+            case "int2" -> (random, index) -> String.valueOf(unique
+                    ? offset + index
+                    : random.nextInt(Short.MAX_VALUE));
+            case "int4" -> (random, index) -> String.valueOf(unique
+                    ? offset + index
+                    : random.nextInt(1_000_000));
+            case "int8" -> (random, index) -> String.valueOf(unique
+                    ? offset + index
+                    : random.nextLong(1_000_000_000L));
+            case "numeric" -> {
+                var precision = typeModifier > 0 ? Math.min((typeModifier - 4) >> 16, 18) : 12;
+                var scale = typeModifier > 0 ? (typeModifier - 4) & 0xffff : 2;
+                var bound = (long) Math.pow(10, precision);
+                yield (random, index) -> unique
+                        ? String.valueOf(offset + index)
+                        : BigDecimal.valueOf(random.nextLong(bound), scale).toPlainString();
+            }
+            case "float4", "float8" -> (random, index) -> String.valueOf(unique
+                    ? offset + index
+                    : random.nextDouble() * 1_000_000);
+            case "bool" -> (random, index) -> String.valueOf(unique
+                    ? (offset + index) % 2 == 0
+                    : random.nextBoolean());
+            case "text", "varchar", "bpchar", "name", "citext" -> {
+                var maxLength = typeModifier > 4 ? typeModifier - 4 : 32;
+                yield (random, index) -> unique
+                        ? Long.toString(offset + index, Character.MAX_RADIX)
+                        : randomString(random, 1 + random.nextInt(Math.min(maxLength, 32)));
+            }
+            case "uuid" -> (random, index) -> new UUID(random.nextLong(), random.nextLong()).toString();
+            case "date" -> (random, index) -> BASE_DATE_TIME.toLocalDate()
+                    .plusDays(unique ? offset + index : random.nextLong(DATE_TIME_RANGE_SECONDS / 86_400))
+                    .toString();
+            case "timestamp" -> (random, index) -> getDateTime(random, offset + index, unique).toString();
+            case "timestamptz" -> (random, index) -> getDateTime(random, offset + index, unique)
+                    .atOffset(ZoneOffset.UTC)
+                    .toString();
+            case "time" -> (random, index) -> LocalTime.ofSecondOfDay(unique
+                    ? (offset + index) % 86_400
+                    : random.nextInt(86_400)).toString();
+            case "interval" -> (random, index) -> (unique ? offset + index : random.nextInt(86_400)) + " seconds";
+            case "json", "jsonb" -> (random, index) -> "{\"value\": %d}".formatted(unique
+                    ? offset + index
+                    : random.nextInt(1_000_000));
+            case "bytea" -> (random, index) -> {
+                var bytes = new byte[16];
+                for (var i = 0; i < bytes.length; i++) {
+                    bytes[i] = (byte) random.nextInt(256);
+                }
+                return escape("\\x" + HexFormat.of().formatHex(bytes));
+            };
+            case "inet" -> (random, index) -> "10.%d.%d.%d".formatted(
+                    ((offset + index) >> 16) & 0xff,
+                    ((offset + index) >> 8) & 0xff,
+                    (offset + index) & 0xff);
+            default -> null;
+        };
+    }
+
+    private static LocalDateTime getDateTime(SplittableRandom random, long index, boolean unique) {
+        return BASE_DATE_TIME.plusSeconds(unique ? index : random.nextLong(DATE_TIME_RANGE_SECONDS));
+    }
+
+    private static String randomString(SplittableRandom random, int length) {
+        var chars = new char[length];
+        for (var i = 0; i < length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+
+    private static String quote(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return NULL;
+        }
+        return value.replace("\\", "\\\\")
+                .replace("\t", "\\t")
+                .replace("\n", "\\n")
+                .replace("\r", "\\r");
+    }
+
+    @FunctionalInterface
+    private interface ValueGenerator {
+
+        String next(SplittableRandom random, long index);
+    }
+
+    /**
+     * @param available сколько новых различных значений может дать генератор уникальной колонки
+     */
+    private record Column(String name, boolean nullable, boolean unique, long available, ValueGenerator generator) {
+
+        String next(SplittableRandom random, long index) {
+            return nullable && random.nextInt(NULL_RATE) == 0 ? NULL : generator.next(random, index);
+        }
+    }
+
+    /**
+     * Внешний ключ: значения выбираются из первых строк таблицы, на которую он ссылается.
+     * Для уникальных колонок (связь один к одному) значения берутся по порядку
+     */
+    private record Reference(List<String> columns, boolean unique, List<String[]> values) {
+
+        void next(SplittableRandom random, long index, List<String> row) {
+            if (values.isEmpty()) {
+                columns.forEach(column -> row.add(NULL));
+                return;
+            }
+            var value = unique ? values.get((int) (index % values.size())) : values.get(random.nextInt(values.size()));
+            row.addAll(Arrays.asList(value));
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package dev.vality.testcontainers.annotations.postgresql;
+
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Перехватчик вызовов {@link DataSource}-бина приложения для стратегий сброса и проверки планов
+ * <p>{@link DataSourcePostProcessor} подменяет бин прокси того же класса (или, для final-классов,
+ * со всеми интерфейсами исходного бина), поэтому приложение может по-прежнему внедрять и приводить его
+ * к {@code HikariDataSource}. Все перехватчики одного бина собираются в одном прокси и вызываются
+ * по возрастанию {@link #getOrder()}: перехватчик, который меняет источник соединений,
+ * должен идти после тех, что оборачивают уже полученное соединение
+ */
+@RequiredArgsConstructor
+abstract class PostgresqlDataSourceInterceptor implements MethodInterceptor, Ordered {
+
+    /**
+     * Исходный бин, к которому прокси направляет неперехваченные вызовы
+     */
+    protected final DataSource target;
+
+    static <T extends PostgresqlDataSourceInterceptor> List<T> find(ApplicationContext context, Class<T> type) {
+        return context.getBeansOfType(DataSource.class).values().stream()
+                .filter(Advised.class::isInstance)
+                .flatMap(dataSource -> Arrays.stream(((Advised) dataSource).getAdvisors()))
+                .map(Advisor::getAdvice)
+                .filter(type::isInstance)
+                .map(type::cast)
+                .toList();
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        return switch (invocation.getMethod().getName()) {
+            case "getConnection" -> getConnection(invocation);
+            case "close" -> close(invocation);
+            default -> invocation.proceed();
+        };
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    protected Object getConnection(MethodInvocation invocation) throws Throwable {
+        return invocation.proceed();
+    }
+
+    protected Object close(MethodInvocation invocation) throws Throwable {
+        return invocation.proceed();
+    }
+
+    @Slf4j
+    @RequiredArgsConstructor
+    static class DataSourcePostProcessor implements BeanPostProcessor {
+
+        private final String purpose;
+        private final Function<DataSource, PostgresqlDataSourceInterceptor> interceptorFactory;
+
+        @Override
+        @SneakyThrows
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource dataSource)) {
+                return bean;
+            }
+            if (bean instanceof Advised advised && isWrapped(advised)) {
+                log.debug("Adding {} to wrapped DataSource bean '{}'", purpose, beanName);
+                var target = (DataSource) advised.getTargetSource().getTarget();
+                addInterceptor(advised, interceptorFactory.apply(target));
+                return bean;
+            }
+            log.debug("Wrapping DataSource bean '{}' for {}", beanName, purpose);
+            var proxyFactory = new ProxyFactory(dataSource);
+            proxyFactory.setProxyTargetClass(!Modifier.isFinal(dataSource.getClass().getModifiers()));
+            proxyFactory.addAdvice(interceptorFactory.apply(dataSource));
+            return proxyFactory.getProxy(dataSource.getClass().getClassLoader());
+        }
+
+        private static boolean isWrapped(Advised advised) {
+            return Arrays.stream(advised.getAdvisors())
+                    .anyMatch(advisor -> advisor.getAdvice() instanceof PostgresqlDataSourceInterceptor);
+        }
+
+        private static void addInterceptor(Advised advised, PostgresqlDataSourceInterceptor interceptor) {
+            var advisors = advised.getAdvisors();
+            var position = 0;
+            while (position < advisors.length
+                    && advisors[position].getAdvice() instanceof Ordered ordered
+                    && ordered.getOrder() <= interceptor.getOrder()) {
+                position++;
+            }
+            advised.addAdvice(position, interceptor);
+        }
+    }
+}
@@ -1,91 +1,877 @@
 package dev.vality.testcontainers.annotations.postgresql;
 
+import dev.vality.testcontainers.annotations.postgresql.constants.ResetStrategy;
+import dev.vality.testcontainers.annotations.postgresql.constants.TruncateMode;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static dev.vality.testcontainers.annotations.util.SpringApplicationPropertiesLoader.loadDefaultLibraryProperty;
 
 @Slf4j
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class PostgresqlDatabaseCleaner {
 
-    private static final String CURRENT_SCHEMA_QUERY = "SELECT schema_name FROM information_schema.schemata";
-    private static final String TABLES_QUERY = "SELECT tablename FROM pg_tables " +
-            "WHERE schemaname = ? AND tablename NOT LIKE 'flyway%'AND tablename NOT LIKE 'schema_version'";
-    private static final String TRUNCATE_TABLE_QUERY = "TRUNCATE TABLE %s.%s CASCADE";
-    private static final Set<String> EXCLUDE_SCHEMAS = Set.of("information_schema");
-    private static final String PG_ = "pg_";
-    private static final String SQL_ = "sql_";
+    static final String SERVICE_SCHEMA = "testcontainers_annotations";
+    /**
+     * Таблицы для очистки: корни деревьев партиций (их {@code TRUNCATE} очищает все партиции) и обычные таблицы.
+     * Отсоединенные партиции — обычные таблицы и очищаются как корни. Если какая-то партиция
+     * в {@code excluded_tables}, вместо корня ее дерева очищаются все остальные листовые партиции
+     */
+    private static final String USER_TABLES_QUERY = """
+            WITH params AS (
+                SELECT {excluded_tables} AS excluded_tables
+            ), tables AS (
+                SELECT c.oid, c.relname, c.relkind, c.relispartition
+                FROM pg_class c
+                JOIN pg_namespace n ON n.oid = c.relnamespace
+                WHERE c.relkind IN ('r', 'p')
+                  AND n.nspname NOT IN ('information_schema', 'testcontainers_annotations')
+                  AND n.nspname NOT LIKE 'pg\\_%'
+                  AND n.nspname NOT LIKE 'sql\\_%'
+                  AND c.relname NOT LIKE 'pg\\_%'
+                  AND c.relname NOT LIKE 'sql\\_%'
+                  AND c.relname NOT LIKE 'flyway%'
+                  AND c.relname NOT LIKE 'schema_version'
+            ), excluded AS (
+                SELECT t.oid
+                FROM tables t, params p
+                WHERE t.relname = ANY (p.excluded_tables)
+            )
+            SELECT t.oid::regclass
+            FROM tables t
+            WHERE t.oid NOT IN (SELECT oid FROM excluded)
+              AND (NOT t.relispartition
+                       AND NOT EXISTS (
+                           SELECT 1 FROM pg_partition_tree(t.oid) pt
+                           WHERE pt.relid IN (SELECT oid FROM excluded))
+                   OR t.relispartition
+                       AND t.relkind = 'r'
+                       AND EXISTS (
+                           SELECT 1 FROM pg_partition_tree(pg_partition_root(t.oid)) pt
+                           WHERE pt.relid IN (SELECT oid FROM excluded))
+                       AND NOT EXISTS (
+                           SELECT 1 FROM pg_partition_ancestors(t.oid) pa
+                           WHERE pa.relid IN (SELECT oid FROM excluded)))
+            """;
+    private static final String TABLES_QUERY = USER_TABLES_QUERY.replace("{excluded_tables}", "?::text[]");
+    private static final String CATALOG_FINGERPRINT_QUERY = "SELECT md5(coalesce(string_agg(" +
+            "c.oid::text || ':' || c.relnamespace::text || ':' || c.relname || ':' || c.relispartition::text, " +
+            "',' ORDER BY c.oid), '')) FROM pg_class c WHERE c.relkind IN ('r', 'p')";
+    private static final String TRUNCATE_TABLE_QUERY = "TRUNCATE TABLE %s CASCADE";
+    private static final String TRUNCATE_FUNCTION_CALL = "SELECT " + SERVICE_SCHEMA + ".truncate_tables(?)";
+    private static final String TRUNCATE_MODIFIED_FUNCTION_CALL =
+            "SELECT " + SERVICE_SCHEMA + ".truncate_modified_tables(?)";
+    private static final String DROP_MODIFIED_TRACKING_FUNCTION_CALL =
+            "SELECT " + SERVICE_SCHEMA + ".drop_modified_tracking(?)";
+    private static final String ADAPTIVE_FUNCTION_CALL =
+            "SELECT " + SERVICE_SCHEMA + ".reset_tables_adaptive(?, ?)";
+    private static final String ADAPTIVE_DELETE_THRESHOLD_PROPERTY =
+            "testcontainers.postgresql.adaptive-delete-threshold";
+    private static final String CAPTURE_BASELINE_FUNCTION_CALL =
+            "SELECT " + SERVICE_SCHEMA + ".capture_baseline(?)";
+    private static final String RESTORE_BASELINE_FUNCTION_CALL =
+            "SELECT " + SERVICE_SCHEMA + ".restore_baseline(?)";
+    private static final String SET_TABLES_LOGGED_FUNCTION_CALL =
+            "SELECT " + SERVICE_SCHEMA + ".set_tables_logged(?, ?)";
+    private static final String FUNCTIONS_DDL = """
+            CREATE SCHEMA IF NOT EXISTS testcontainers_annotations;
+            CREATE UNLOGGED TABLE IF NOT EXISTS testcontainers_annotations.modified_tables (
+                table_oid oid PRIMARY KEY
+            );
+            CREATE OR REPLACE FUNCTION testcontainers_annotations.all_user_tables(excluded_tables text[])
+            RETURNS SETOF regclass
+            LANGUAGE sql
+            STABLE
+            AS $$
+                SELECT c.oid::regclass
+                FROM pg_class c
+                JOIN pg_namespace n ON n.oid = c.relnamespace
+                WHERE c.relkind IN ('r', 'p')
+                  AND n.nspname NOT IN ('information_schema', 'testcontainers_annotations')
+                  AND n.nspname NOT LIKE 'pg\\_%'
+                  AND n.nspname NOT LIKE 'sql\\_%'
+                  AND c.relname NOT LIKE 'pg\\_%'
+                  AND c.relname NOT LIKE 'sql\\_%'
+                  AND c.relname NOT LIKE 'flyway%'
+                  AND c.relname NOT LIKE 'schema_version'
+                  AND c.relname <> ALL (excluded_tables)
+            $$;
+            CREATE OR REPLACE FUNCTION testcontainers_annotations.user_tables(excluded_tables text[])
+            RETURNS SETOF regclass
+            LANGUAGE sql
+            STABLE
+            AS $$
+            {user_tables_query}
+            $$;
+            CREATE OR REPLACE FUNCTION testcontainers_annotations.truncate_tables(excluded_tables text[])
+            RETURNS integer
+            LANGUAGE plpgsql
+            AS $$
+            DECLARE
+                tables text;
+                tables_count integer;
+            BEGIN
+                SELECT string_agg(t::text, ', '), count(*)
+                INTO tables, tables_count
+                FROM testcontainers_annotations.user_tables(excluded_tables) t;
+                IF tables IS NOT NULL THEN
+                    PERFORM set_config('session_replication_role', 'replica', true);
+                    EXECUTE 'TRUNCATE TABLE ' || tables || ' CASCADE';
+                END IF;
+                RETURN tables_count;
+            END
+            $$;
+            CREATE OR REPLACE FUNCTION testcontainers_annotations.track_modified_table()
+            RETURNS trigger
+            LANGUAGE plpgsql
+            SECURITY DEFINER
+            SET search_path = pg_catalog
+            AS $$
+            BEGIN
+                INSERT INTO testcontainers_annotations.modified_tables (table_oid)
+                VALUES (TG_RELID)
+                ON CONFLICT DO NOTHING;
+                RETURN NULL;
+            END
+            $$;
+            CREATE OR REPLACE FUNCTION testcontainers_annotations.modified_user_tables(excluded_tables text[])
+            RETURNS regclass[]
+            LANGUAGE plpgsql
+            AS $$
+            DECLARE
+                untracked regclass[];
+                modified regclass[];
+            BEGIN
+                untracked := ARRAY(
+                    SELECT t
+                    FROM testcontainers_annotations.all_user_tables(excluded_tables) t
+                    WHERE NOT EXISTS (
+                        SELECT 1 FROM pg_trigger tr
+                        WHERE tr.tgrelid = t AND tr.tgname = 'testcontainers_annotations_track'));
+                -- запись в партицию отмечает саму партицию, запись через родителя — родителя,
+                -- поэтому корень изменен, если изменена любая таблица его дерева, а листовая партиция —
+                -- если изменена она сама или любой из ее предков
+                modified := ARRAY(
+                    SELECT t
+                    FROM testcontainers_annotations.user_tables(excluded_tables) t
+                    WHERE EXISTS (
+                        SELECT 1
+                        FROM testcontainers_annotations.all_user_tables(excluded_tables) a
+                        WHERE a = ANY (untracked)
+                          AND (a = t OR pg_partition_root(a) = t))
+                       OR EXISTS (
+                        SELECT 1
+                        FROM testcontainers_annotations.modified_tables m
+                        WHERE m.table_oid = t
+                           OR pg_partition_root(m.table_oid) = t
+                           OR m.table_oid IN (SELECT relid FROM pg_partition_ancestors(t))));
+                FOR i IN 1 .. coalesce(array_length(untracked, 1), 0) LOOP
+                    EXECUTE format(
+                        'CREATE TRIGGER testcontainers_annotations_track '
+                        'AFTER INSERT OR UPDATE OR DELETE ON %s '
+                        'FOR EACH STATEMENT EXECUTE FUNCTION testcontainers_annotations.track_modified_table()',
+                        untracked[i]);
+                END LOOP;
+                DELETE FROM testcontainers_annotations.modified_tables;
+                RETURN modified;
+            END
+            $$;
+            CREATE OR REPLACE FUNCTION testcontainers_annotations.truncate_modified_tables(excluded_tables text[])
+            RETURNS integer
+            LANGUAGE plpgsql
+            AS $$
+            DECLARE
+                modified regclass[];
+            BEGIN
+                modified := testcontainers_annotations.modified_user_tables(excluded_tables);
+                IF cardinality(modified) > 0 THEN
+                    PERFORM set_config('session_replication_role', 'replica', true);
+                    EXECUTE 'TRUNCATE TABLE ' || array_to_string(modified, ', ') || ' CASCADE';
+                END IF;
+                RETURN cardinality(modified);
+            END
+            $$;
+            CREATE OR REPLACE FUNCTION testcontainers_annotations.drop_modified_tracking(excluded_tables text[])
+            RETURNS integer
+            LANGUAGE plpgsql
+            AS $$
+            DECLARE
+                tracked regclass[];
+            BEGIN
+                tracked := ARRAY(
+                    SELECT tr.tgrelid::regclass
+                    FROM pg_trigger tr
+                    WHERE tr.tgname = 'testcontainers_annotations_track'
+                      AND tr.tgrelid IN (
+                          SELECT t FROM testcontainers_annotations.all_user_tables(excluded_tables) t));
+                FOR i IN 1 .. coalesce(array_length(tracked, 1), 0) LOOP
+                    EXECUTE format('DROP TRIGGER testcontainers_annotations_track ON %s', tracked[i]);
+                END LOOP;
+                DELETE FROM testcontainers_annotations.modified_tables;
+                RETURN cardinality(tracked);
+            END
+            $$;
+            CREATE UNLOGGED TABLE IF NOT EXISTS testcontainers_annotations.baseline_tables (
+                table_oid oid PRIMARY KEY,
+                shadow_table text NOT NULL,
+                row_count bigint NOT NULL
+            );
+            CREATE UNLOGGED TABLE IF NOT EXISTS testcontainers_annotations.baseline_sequences (
+                sequence_oid oid PRIMARY KEY,
+                last_value bigint NOT NULL,
+                is_called boolean NOT NULL
+            );
+            CREATE OR REPLACE FUNCTION testcontainers_annotations.baseline_user_tables(excluded_tables text[])
+            RETURNS SETOF regclass
+            LANGUAGE sql
+            STABLE
+            AS $$
+                -- исключенные таблицы, которые прямо или через другие таблицы ссылаются на сохраняемые,
+                -- тоже сохраняются: TRUNCATE ... CASCADE при восстановлении очищает и их
+                WITH RECURSIVE included(relid) AS (
+                    SELECT u FROM testcontainers_annotations.user_tables(excluded_tables) u
+                ), referencing(relid) AS (
+                    SELECT pt.relid::oid
+                    FROM included i, pg_partition_tree(i.relid) pt
+                    UNION
+                    SELECT c.conrelid
+                    FROM pg_constraint c
+                    JOIN referencing r ON c.confrelid = r.relid
+                    WHERE c.contype = 'f'
+                )
+                SELECT relid FROM included
+                UNION ALL
+                SELECT a
+                FROM testcontainers_annotations.user_tables('{}') a
+                WHERE EXISTS (
+                        SELECT 1 FROM pg_partition_tree(a) pt
+                        WHERE pt.relid IN (SELECT relid FROM referencing))
+                  AND NOT EXISTS (
+                        SELECT 1 FROM included i, pg_partition_tree(a) pt
+                        WHERE pt.relid = i.relid)
+            $$;
+            CREATE OR REPLACE FUNCTION testcontainers_annotations.capture_baseline(excluded_tables text[])
+            RETURNS integer
+            LANGUAGE plpgsql
+            AS $$
+            DECLARE
+                t regclass;
+                s regclass;
+                shadow text;
+                captured_rows bigint;
+                sequence_last_value bigint;
+                sequence_is_called boolean;
+                captured integer := 0;
+            BEGIN
+                FOR shadow IN SELECT b.shadow_table FROM testcontainers_annotations.baseline_tables b LOOP
+                    EXECUTE format('DROP TABLE IF EXISTS %s', shadow);
+                END LOOP;
+                DELETE FROM testcontainers_annotations.baseline_tables;
+                DELETE FROM testcontainers_annotations.baseline_sequences;
+                FOR t IN SELECT u FROM testcontainers_annotations.baseline_user_tables(excluded_tables) u LOOP
+                    shadow := format('testcontainers_annotations.%I', 'baseline_' || t::oid);
+                    EXECUTE format('CREATE UNLOGGED TABLE %s AS SELECT * FROM %s', shadow, t);
+                    GET DIAGNOSTICS captured_rows = ROW_COUNT;
+                    INSERT INTO testcontainers_annotations.baseline_tables VALUES (t, shadow, captured_rows);
+                    captured := captured + 1;
+                END LOOP;
+                -- последовательности serial и identity колонок, чтобы после восстановления
+                -- тесты получали те же идентификаторы
+                FOR s IN
+                    SELECT DISTINCT d.objid::regclass
+                    FROM pg_depend d
+                    JOIN pg_class c ON c.oid = d.objid AND c.relkind = 'S'
+                    WHERE d.classid = 'pg_class'::regclass
+                      AND d.refclassid = 'pg_class'::regclass
+                      AND d.deptype IN ('a', 'i')
+                      AND (d.refobjid IN (SELECT testcontainers_annotations.all_user_tables(excluded_tables))
+                           OR d.refobjid IN (SELECT testcontainers_annotations.baseline_user_tables(excluded_tables)))
+                LOOP
+                    EXECUTE format('SELECT last_value, is_called FROM %s', s)
+                    INTO sequence_last_value, sequence_is_called;
+                    INSERT INTO testcontainers_annotations.baseline_sequences
+                    VALUES (s, sequence_last_value, sequence_is_called);
+                END LOOP;
+                -- триггеры отслеживания изменений, чтобы восстанавливать только измененные таблицы
+                PERFORM testcontainers_annotations.modified_user_tables(excluded_tables);
+                RETURN captured;
+            END
+            $$;
+            CREATE OR REPLACE FUNCTION testcontainers_annotations.restore_baseline(excluded_tables text[])
+            RETURNS integer
+            LANGUAGE plpgsql
+            AS $$
+            DECLARE
+                modified regclass[];
+                restored regclass[];
+                t regclass;
+                shadow text;
+                columns text;
+            BEGIN
+                modified := testcontainers_annotations.modified_user_tables(excluded_tables);
+                -- TRUNCATE ... CASCADE очищает и таблицы, ссылающиеся на измененные, поэтому восстанавливаются
+                -- все сохраненные таблицы, достижимые по внешним ключам в обратном направлении, включая
+                -- исключенные из очистки
+                restored := ARRAY(
+                    WITH RECURSIVE referencing(relid) AS (
+                        SELECT pt.relid::oid
+                        FROM unnest(modified) m, pg_partition_tree(m) pt
+                        UNION
+                        SELECT c.conrelid
+                        FROM pg_constraint c
+                        JOIN referencing r ON c.confrelid = r.relid
+                        WHERE c.contype = 'f'
+                    )
+                    SELECT b.table_oid::regclass
+                    FROM testcontainers_annotations.baseline_tables b
+                    JOIN pg_class c ON c.oid = b.table_oid
+                    WHERE EXISTS (
+                        SELECT 1
+                        FROM referencing r
+                        WHERE r.relid IN (SELECT relid FROM pg_partition_tree(b.table_oid))
+                           OR r.relid IN (SELECT relid FROM pg_partition_ancestors(b.table_oid))));
+                IF cardinality(restored) > 0 THEN
+                    PERFORM set_config('session_replication_role', 'replica', true);
+                    EXECUTE 'TRUNCATE TABLE ' || array_to_string(restored, ', ') || ' CASCADE';
+                    FOR t, shadow IN
+                        SELECT b.table_oid::regclass, b.shadow_table
+                        FROM testcontainers_annotations.baseline_tables b
+                        WHERE b.table_oid = ANY (restored::oid[])
+                          AND b.row_count > 0
+                    LOOP
+                        SELECT string_agg(quote_ident(a.attname), ', ' ORDER BY a.attnum)
+                        INTO columns
+                        FROM pg_attribute a
+                        WHERE a.attrelid = t
+                          AND a.attnum > 0
+                          AND NOT a.attisdropped
+                          AND a.attgenerated = '';
+                        EXECUTE format(
+                            'INSERT INTO %s (%s) OVERRIDING SYSTEM VALUE SELECT %s FROM %s',
+                            t, columns, columns, shadow);
+                    END LOOP;
+                END IF;
+                PERFORM setval(b.sequence_oid::regclass, b.last_value, b.is_called)
+                FROM testcontainers_annotations.baseline_sequences b
+                JOIN pg_class c ON c.oid = b.sequence_oid;
+                RETURN cardinality(restored);
+            END
+            $$;
+            CREATE OR REPLACE FUNCTION testcontainers_annotations.reset_tables_adaptive(
+                excluded_tables text[],
+                delete_threshold bigint)
+            RETURNS integer
+            LANGUAGE plpgsql
+            AS $$
+            DECLARE
+                cleaned regclass[];
+                large_tables regclass[] := '{}';
+                pending regclass[] := '{}';
+                t regclass;
+                probed_rows bigint;
+                progress boolean := true;
+            BEGIN
+                cleaned := ARRAY(SELECT u FROM testcontainers_annotations.user_tables(excluded_tables) u);
+                -- строки считаются не дальше порога: статистика (reltuples, n_live_tup) после очистки
+                -- предыдущим тестом устаревает, а дочитывать большую таблицу до конца незачем
+                FOREACH t IN ARRAY cleaned LOOP
+                    EXECUTE format('SELECT count(*) FROM (SELECT 1 FROM %s LIMIT %s) s', t, delete_threshold + 1)
+                    INTO probed_rows;
+                    -- DELETE не может очистить таблицу, на которую ссылается неочищаемая таблица,
+                    -- поэтому такие таблицы очищаются через TRUNCATE ... CASCADE, как в остальных режимах.
+                    -- В отличие от TRUNCATE, DELETE вызывает пользовательские триггеры, которые могут записать
+                    -- строки (аудит, outbox) в уже очищенные таблицы, поэтому таблицы с ними тоже не удаляются
+                    IF probed_rows > delete_threshold OR EXISTS (
+                        SELECT 1
+                        FROM pg_constraint c
+                        WHERE c.contype = 'f'
+                          AND c.confrelid IN (SELECT relid FROM pg_partition_tree(t))
+                          AND NOT EXISTS (
+                              SELECT 1
+                              FROM unnest(cleaned) x, pg_partition_tree(x) pt
+                              WHERE pt.relid = c.conrelid)) OR EXISTS (
+                        SELECT 1
+                        FROM pg_trigger tr
+                        WHERE tr.tgrelid IN (SELECT relid FROM pg_partition_tree(t))
+                          AND NOT tr.tgisinternal
+                          AND tr.tgname <> 'testcontainers_annotations_track') THEN
+                        large_tables := large_tables || t;
+                    ELSIF probed_rows > 0 THEN
+                        pending := pending || t;
+                    END IF;
+                END LOOP;
+                IF cardinality(large_tables) > 0 THEN
+                    EXECUTE 'TRUNCATE TABLE ' || array_to_string(large_tables, ', ') || ' CASCADE';
+                END IF;
+                -- DELETE выполняется с включенными триггерами внешних ключей, поэтому ON DELETE CASCADE
+                -- и SET NULL срабатывают как обычно. Порядок по внешним ключам подбирается повторными проходами:
+                -- таблица, на строки которой еще ссылаются, пропускается до следующего прохода
+                WHILE progress AND cardinality(pending) > 0 LOOP
+                    progress := false;
+                    FOREACH t IN ARRAY pending LOOP
+                        BEGIN
+                            EXECUTE format('DELETE FROM %s', t);
+                            pending := array_remove(pending, t);
+                            progress := true;
+                        EXCEPTION WHEN foreign_key_violation OR not_null_violation THEN
+                            NULL;
+                        END;
+                    END LOOP;
+                END LOOP;
+                -- циклические ссылки без ON DELETE CASCADE удалением не разрешаются
+                IF cardinality(pending) > 0 THEN
+                    EXECUTE 'TRUNCATE TABLE ' || array_to_string(pending, ', ') || ' CASCADE';
+                END IF;
+                RETURN cardinality(cleaned);
+            END
+            $$;
+            CREATE OR REPLACE FUNCTION testcontainers_annotations.set_tables_logged(
+                excluded_tables text[],
+                logged boolean)
+            RETURNS integer
+            LANGUAGE plpgsql
+            AS $$
+            DECLARE
+                pending regclass[];
+                t regclass;
+                changed integer := 0;
+                progress boolean := true;
+            BEGIN
+                pending := ARRAY(
+                    SELECT u
+                    FROM testcontainers_annotations.all_user_tables(excluded_tables) u
+                    JOIN pg_class c ON c.oid = u
+                    WHERE c.relkind = 'r'
+                      AND c.relpersistence = CASE WHEN logged THEN 'u' ELSE 'p' END);
+                -- постоянная таблица не может ссылаться на UNLOGGED, поэтому порядок таблиц по внешним ключам
+                -- подбирается повторными проходами, пока они меняют хотя бы одну таблицу
+                WHILE progress AND cardinality(pending) > 0 LOOP
+                    progress := false;
+                    FOREACH t IN ARRAY pending LOOP
+                        BEGIN
+                            EXECUTE format(
+                                'ALTER TABLE %s SET %s',
+                                t,
+                                CASE WHEN logged THEN 'LOGGED' ELSE 'UNLOGGED' END);
+                            pending := array_remove(pending, t);
+                            changed := changed + 1;
+                            progress := true;
+                        EXCEPTION WHEN invalid_table_definition OR object_not_in_prerequisite_state THEN
+                            NULL;
+                        END;
+                    END LOOP;
+                END LOOP;
+                RETURN changed;
+            END
+            $$;
+            """.replace("{user_tables_query}", USER_TABLES_QUERY.replace("{excluded_tables}", "excluded_tables"));
+    private static final Set<String> UNDEFINED_FUNCTION_STATES = Set.of("42883", "3F000");
+    private static final Set<String> INSTALLED_FUNCTIONS = ConcurrentHashMap.newKeySet();
+    private static final Map<String, CleanupConnection> CONNECTIONS = new ConcurrentHashMap<>();
 
-    @SneakyThrows
     public static void cleanupDatabaseTables(
             String jdbcUrl,
             String username,
             String password,
             List<String> excludedTables) {
-        try (var connection = DriverManager.getConnection(jdbcUrl, username, password)) {
-            for (var schema : getSchemas(connection)) {
-                var tables = getUserTables(connection, schema, excludedTables);
-                if (!tables.isEmpty()) {
-                    truncateTables(connection, schema, tables);
+        cleanupDatabaseTables(jdbcUrl, username, password, excludedTables, TruncateMode.PER_TABLE);
+    }
+
+    @SneakyThrows
+    public static void cleanupDatabaseTables(
+            String jdbcUrl,
+            String username,
+            String password,
+            List<String> excludedTables,
+            TruncateMode truncateMode) {
+        var startedAt = System.nanoTime();
+        var cleanupConnection = CONNECTIONS.computeIfAbsent(
+                jdbcUrl,
+                url -> new CleanupConnection(url, username, password));
+        int truncatedTables;
+        synchronized (cleanupConnection) {
+            truncatedTables = cleanupConnection.execute(() -> switch (truncateMode) {
+                case PER_TABLE -> truncateTablesPerTable(cleanupConnection, excludedTables);
+                case SINGLE_STATEMENT -> callServerSideFunction(
+                        cleanupConnection, TRUNCATE_FUNCTION_CALL, excludedTables);
+                case MODIFIED_TABLES -> callServerSideFunction(
+                        cleanupConnection, TRUNCATE_MODIFIED_FUNCTION_CALL, excludedTables);
+                case ADAPTIVE -> callServerSideFunction(
+                        cleanupConnection, ADAPTIVE_FUNCTION_CALL, excludedTables, getAdaptiveDeleteThreshold());
+            });
+        }
+        log.debug("Cleanup of {} tables [{}] took {} ms",
+                truncatedTables,
+                truncateMode,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+    }
+
+    /**
+     * Замеряет очистку базы данных каждым из {@link TruncateMode}: после прогрева выполняет {@code iterations}
+     * очисток и логирует медианное время по каждому способу. Перед каждой очисткой, включая прогрев, вызывается
+     * {@code seed}, который заполняет таблицы типичным для теста объемом данных (например, через
+     * {@link PostgresqlDataGenerator}), — время заполнения в замер не входит. Все данные в таблицах базы удаляются,
+     * поэтому метод предназначен для отдельного теста, который подбирает способ очистки для своей схемы.
+     * После замера триггеры отслеживания {@link TruncateMode#MODIFIED_TABLES} удаляются
+     *
+     * @return медианное время очистки в миллисекундах по каждому способу
+     */
+    public static Map<TruncateMode, Double> benchmarkTruncateModes(
+            String jdbcUrl,
+            String username,
+            String password,
+            List<String> excludedTables,
+            int iterations,
+            Runnable seed) {
+        var results = new EnumMap<TruncateMode, Double>(TruncateMode.class);
+        try {
+            for (var truncateMode : TruncateMode.values()) {
+                seed.run();
+                cleanupDatabaseTables(jdbcUrl, username, password, excludedTables, truncateMode);
+                var timings = new double[iterations];
+                for (var i = 0; i < iterations; i++) {
+                    seed.run();
+                    var startedAt = System.nanoTime();
+                    cleanupDatabaseTables(jdbcUrl, username, password, excludedTables, truncateMode);
+                    timings[i] = (System.nanoTime() - startedAt) / 1_000_000.0;
                 }
+                Arrays.sort(timings);
+                results.put(truncateMode, iterations > 0 ? timings[iterations / 2] : 0.0);
             }
+        } finally {
+            dropModifiedTracking(jdbcUrl, username, password, excludedTables);
         }
+        results.forEach((truncateMode, median) ->
+                log.info("Cleanup benchmark [{}]: median {} ms over {} iterations",
+                        truncateMode,
+                        String.format(Locale.ROOT, "%.2f", median),
+                        iterations));
+        return results;
     }
 
+    /**
+     * Удаляет триггеры отслеживания {@link TruncateMode#MODIFIED_TABLES}, которые замер установил
+     * на все таблицы и которые иначе замедляли бы каждую последующую запись
+     */
     @SneakyThrows
-    private static Set<String> getSchemas(Connection connection) {
-        var schemas = new HashSet<String>();
-        try (
-                var statement = connection.createStatement();
-                var resultSet = statement.executeQuery(CURRENT_SCHEMA_QUERY)) {
-            while (resultSet.next()) {
-                var schema = resultSet.getString("schema_name");
-                if (!EXCLUDE_SCHEMAS.contains(schema)
-                        && !schema.startsWith(PG_) && !schema.startsWith(SQL_)) {
-                    schemas.add(schema);
+    private static void dropModifiedTracking(
+            String jdbcUrl,
+            String username,
+            String password,
+            List<String> excludedTables) {
+        var cleanupConnection = CONNECTIONS.computeIfAbsent(
+                jdbcUrl,
+                url -> new CleanupConnection(url, username, password));
+        synchronized (cleanupConnection) {
+            cleanupConnection.execute(() -> callServerSideFunction(
+                    cleanupConnection, DROP_MODIFIED_TRACKING_FUNCTION_CALL, excludedTables));
+        }
+    }
+
+    /**
+     * Сохраняет текущие данные пользовательских таблиц, кроме исключенных, в теневые копии внутри базы
+     * и состояние их последовательностей. Исключенные таблицы, которые ссылаются на сохраняемые, тоже сохраняются,
+     * так как при восстановлении их очищает {@code TRUNCATE ... CASCADE}. Предыдущий снимок удаляется
+     */
+    @SneakyThrows
+    public static void captureBaseline(
+            String jdbcUrl,
+            String username,
+            String password,
+            List<String> excludedTables) {
+        var startedAt = System.nanoTime();
+        var cleanupConnection = CONNECTIONS.computeIfAbsent(
+                jdbcUrl,
+                url -> new CleanupConnection(url, username, password));
+        int capturedTables;
+        synchronized (cleanupConnection) {
+            capturedTables = cleanupConnection.execute(() -> callServerSideFunction(
+                    cleanupConnection, CAPTURE_BASELINE_FUNCTION_CALL, excludedTables));
+        }
+        log.debug("Baseline capture of {} tables took {} ms",
+                capturedTables,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+    }
+
+    /**
+     * Возвращает таблицы, измененные после {@link #captureBaseline}, к сохраненным данным одним вызовом
+     * серверной функции: данные копируются из теневых копий на стороне сервера, без передачи клиенту
+     */
+    @SneakyThrows
+    public static void restoreBaseline(
+            String jdbcUrl,
+            String username,
+            String password,
+            List<String> excludedTables) {
+        var startedAt = System.nanoTime();
+        var cleanupConnection = CONNECTIONS.computeIfAbsent(
+                jdbcUrl,
+                url -> new CleanupConnection(url, username, password));
+        int restoredTables;
+        synchronized (cleanupConnection) {
+            restoredTables = cleanupConnection.execute(() -> callServerSideFunction(
+                    cleanupConnection, RESTORE_BASELINE_FUNCTION_CALL, excludedTables));
+        }
+        log.debug("Baseline restore of {} tables took {} ms",
+                restoredTables,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+    }
+
+    /**
+     * Переводит пользовательские таблицы, кроме исключенных, в режим {@code LOGGED} или {@code UNLOGGED}.
+     * Таблицы, которые уже в нужном режиме, не перезаписываются
+     */
+    @SneakyThrows
+    public static void setTablesLogged(
+            String jdbcUrl,
+            String username,
+            String password,
+            List<String> excludedTables,
+            boolean logged) {
+        var startedAt = System.nanoTime();
+        var cleanupConnection = CONNECTIONS.computeIfAbsent(
+                jdbcUrl,
+                url -> new CleanupConnection(url, username, password));
+        int changedTables;
+        synchronized (cleanupConnection) {
+            changedTables = cleanupConnection.execute(() -> callServerSideFunction(
+                    cleanupConnection, SET_TABLES_LOGGED_FUNCTION_CALL, excludedTables, logged));
+        }
+        log.debug("Switching {} tables to {} took {} ms",
+                changedTables,
+                logged ? "LOGGED" : "UNLOGGED",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+    }
+
+    /**
+     * Закрывает соединения для очистки, открытые к базам данных, url которых подходят под фильтр.
+     * Вызывается перед остановкой сервера или удалением базы данных
+     */
+    static void closeConnections(Predicate<String> jdbcUrlFilter) {
+        CONNECTIONS.keySet().removeIf(jdbcUrl -> {
+            if (!jdbcUrlFilter.test(jdbcUrl)) {
+                return false;
+            }
+            var cleanupConnection = CONNECTIONS.get(jdbcUrl);
+            if (cleanupConnection != null) {
+                synchronized (cleanupConnection) {
+                    cleanupConnection.close();
                 }
             }
+            return true;
+        });
+    }
+
+    private static long getAdaptiveDeleteThreshold() {
+        return AdaptiveDeleteThresholdHolder.VALUE;
+    }
+
+    static TruncateMode resolveTruncateMode(TruncateMode truncateMode, ResetStrategy resetStrategy) {
+        return resetStrategy == ResetStrategy.ROLLBACK ? TruncateMode.MODIFIED_TABLES : truncateMode;
+    }
+
+    private static int truncateTablesPerTable(
+            CleanupConnection cleanupConnection,
+            List<String> excludedTables) throws SQLException {
+        var tables = getCatalog(cleanupConnection, excludedTables);
+        if (!tables.isEmpty()) {
+            truncateTables(cleanupConnection.get(), tables);
+        }
+        return tables.size();
+    }
+
+    private static int callServerSideFunction(
+            CleanupConnection cleanupConnection,
+            String functionCall,
+            List<String> excludedTables,
+            Object... parameters) throws SQLException {
+        if (INSTALLED_FUNCTIONS.add(cleanupConnection.jdbcUrl)) {
+            installFunctions(cleanupConnection.get());
+        }
+        try {
+            return callFunction(cleanupConnection, functionCall, excludedTables, parameters);
+        } catch (SQLException ex) {
+            if (!UNDEFINED_FUNCTION_STATES.contains(ex.getSQLState())) {
+                throw ex;
+            }
+            // база данных могла быть пересоздана под тем же url, например в новом контейнере на том же порту
+            installFunctions(cleanupConnection.get());
+            return callFunction(cleanupConnection, functionCall, excludedTables, parameters);
         }
-        return schemas;
     }
 
-    @SneakyThrows
-    private static List<String> getUserTables(Connection connection, String schema, List<String> excludedTables) {
+    private static void installFunctions(Connection connection) throws SQLException {
+        try (var statement = connection.createStatement()) {
+            statement.execute(FUNCTIONS_DDL);
+        }
+        log.debug("Installed cleanup functions in schema {}", SERVICE_SCHEMA);
+    }
+
+    private static int callFunction(
+            CleanupConnection cleanupConnection,
+            String functionCall,
+            List<String> excludedTables,
+            Object... parameters) throws SQLException {
+        var statement = cleanupConnection.prepare(functionCall);
+        statement.setArray(1, cleanupConnection.get().createArrayOf("text", excludedTables.toArray()));
+        for (var i = 0; i < parameters.length; i++) {
+            statement.setObject(i + 2, parameters[i]);
+        }
+        try (var resultSet = statement.executeQuery()) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+
+    /**
+     * Список таблиц перечитывается, только если изменился отпечаток {@code pg_class},
+     * то есть между тестами были созданы, удалены, переименованы, присоединены или отсоединены таблицы
+     */
+    private static List<String> getCatalog(
+            CleanupConnection cleanupConnection,
+            List<String> excludedTables) throws SQLException {
+        String fingerprint;
+        try (var resultSet = cleanupConnection.prepare(CATALOG_FINGERPRINT_QUERY).executeQuery()) {
+            resultSet.next();
+            fingerprint = resultSet.getString(1);
+        }
+        if (!fingerprint.equals(cleanupConnection.catalogFingerprint)
+                || !excludedTables.equals(cleanupConnection.catalogExcludedTables)) {
+            cleanupConnection.catalog = getUserTables(cleanupConnection, excludedTables);
+            cleanupConnection.catalogFingerprint = fingerprint;
+            cleanupConnection.catalogExcludedTables = List.copyOf(excludedTables);
+            log.debug("Loaded catalog of {} tables", cleanupConnection.catalog.size());
+        }
+        return cleanupConnection.catalog;
+    }
+
+    private static List<String> getUserTables(
+            CleanupConnection cleanupConnection,
+            List<String> excludedTables) throws SQLException {
         var tables = new ArrayList<String>();
-        try (var statement = connection.prepareStatement(TABLES_QUERY)) {
-            statement.setString(1, schema);
-            try (var resultSet = statement.executeQuery()) {
-                while (resultSet.next()) {
-                    var tableName = resultSet.getString("tablename");
-                    boolean isTruncatable = !tableName.startsWith(PG_)
-                            && !tableName.startsWith(SQL_)
-                            && !excludedTables.contains(tableName);
-                    if (isTruncatable) {
-                        tables.add(tableName);
-                    }
-                }
+        var statement = cleanupConnection.prepare(TABLES_QUERY);
+        statement.setArray(1, cleanupConnection.get().createArrayOf("text", excludedTables.toArray()));
+        try (var resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                tables.add(resultSet.getString(1));
             }
         }
         return tables;
     }
 
-    @SneakyThrows
-    private static void truncateTables(Connection connection, String schema, List<String> tables) {
+    private static void truncateTables(Connection connection, List<String> tables) throws SQLException {
         try (var statement = connection.createStatement()) {
-            statement.execute("SET session_replication_role = 'replica'");
+            statement.addBatch("SET session_replication_role = 'replica'");
             for (var table : tables) {
                 log.debug("Truncating table: {}", table);
-                statement.execute(String.format(TRUNCATE_TABLE_QUERY, schema, table));
+                statement.addBatch(String.format(TRUNCATE_TABLE_QUERY, table));
+            }
+            statement.addBatch("SET session_replication_role = 'origin'");
+            try {
+                statement.executeBatch();
+            } catch (SQLException ex) {
+                statement.execute("RESET session_replication_role");
+                throw ex;
             }
-            statement.execute("SET session_replication_role = 'origin'");
         }
     }
+
+    /**
+     * Долгоживущее соединение для очистки одной базы данных с кэшем подготовленных запросов и списка таблиц.
+     * Если соединение разорвано (например, контейнер перезапущен на том же порту), оно открывается заново
+     */
+    @RequiredArgsConstructor
+    private static class CleanupConnection {
+
+        private final String jdbcUrl;
+        private final String username;
+        private final String password;
+        private final Map<String, PreparedStatement> statements = new HashMap<>();
+        private Connection connection;
+        private String catalogFingerprint;
+        private List<String> catalogExcludedTables;
+        private List<String> catalog;
+
+        private Connection get() throws SQLException {
+            if (connection == null) {
+                connection = DriverManager.getConnection(jdbcUrl, username, password);
+            }
+            return connection;
+        }
+
+        private PreparedStatement prepare(String sql) throws SQLException {
+            var statement = statements.get(sql);
+            if (statement == null) {
+                statement = get().prepareStatement(sql);
+                statements.put(sql, statement);
+            }
+            return statement;
+        }
+
+        private int execute(SqlAction action) throws SQLException {
+            try {
+                return action.execute();
+            } catch (SQLException ex) {
+                if (connection == null || !connection.isClosed() && !isConnectionFailure(ex)) {
+                    throw ex;
+                }
+                log.debug("Cleanup connection to {} is broken, reconnecting", jdbcUrl, ex);
+                close();
+                return action.execute();
+            }
+        }
+
+        private void close() {
+            statements.clear();
+            catalogFingerprint = null;
+            catalogExcludedTables = null;
+            catalog = null;
+            if (connection != null) {
+                try {
+                    connection.close();
+                } catch (SQLException ex) {
+                    log.debug("Error when closing cleanup connection to {}", jdbcUrl, ex);
+                }
+                connection = null;
+            }
+        }
+
+        private static boolean isConnectionFailure(SQLException ex) {
+            return ex.getSQLState() != null
+                    && (ex.getSQLState().startsWith("08") || ex.getSQLState().startsWith("57P"));
+        }
+    }
+
+    private static class AdaptiveDeleteThresholdHolder {
+
+        private static final long VALUE = Long.parseLong(
+                loadDefaultLibraryProperty(ADAPTIVE_DELETE_THRESHOLD_PROPERTY).trim());
+
+    }
+
+    @FunctionalInterface
+    private interface SqlAction {
+
+        int execute() throws SQLException;
+
+    }
 }
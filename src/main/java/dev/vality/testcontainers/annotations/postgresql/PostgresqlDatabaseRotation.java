@@ -0,0 +1,218 @@
+package dev.vality.testcontainers.annotations.postgresql;
+
+import dev.vality.testcontainers.annotations.postgresql.constants.TruncateMode;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.sql.DriverManager;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Ротация баз данных для {@link dev.vality.testcontainers.annotations.postgresql.constants.ResetStrategy#ROTATION}
+ * <p>После старта контекста (когда Flyway уже применил миграции) основная база очищается и копируется
+ * через {@code CREATE DATABASE ... TEMPLATE} в несколько баз ротации, а {@link PostgresqlRotationInterceptor}
+ * переключает приложение на первую из них. На границе тестов приложение переключается на следующую чистую базу,
+ * а только что использованная очищается в фоне, пока выполняется следующий тест. При закрытии контекста
+ * соединения очистки к базам ротации закрываются, а сами базы удаляются
+ */
+@Slf4j
+@RequiredArgsConstructor
+class PostgresqlDatabaseRotation {
+
+    static final String BEAN_NAME = "postgresqlDatabaseRotation";
+    private static final String TERMINATE_CONNECTIONS_QUERY = "SELECT pg_terminate_backend(pid) " +
+            "FROM pg_stat_activity WHERE datname = ? AND pid <> pg_backend_pid()";
+    private static final String ADMIN_DATABASE_NAME = "postgres";
+    private static final String FALLBACK_ADMIN_DATABASE_NAME = "template1";
+    private static final AtomicInteger ROTATION_COUNTER = new AtomicInteger();
+    private static final ExecutorService CLEANUP_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        var thread = new Thread(runnable, "postgresql-rotation-cleanup");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Function<String, String> jdbcUrlFactory;
+    private final String databaseName;
+    private final String username;
+    private final String password;
+    private final List<String> excludedTables;
+    private final TruncateMode truncateMode;
+    private final int size;
+    private final List<PostgresqlRotationInterceptor> interceptors = new ArrayList<>();
+    private final List<String> databases = new ArrayList<>();
+    private final Map<String, CompletableFuture<Void>> cleanups = new HashMap<>();
+    private volatile String currentDatabase;
+    private boolean dirty;
+
+    /**
+     * Регистрирует ротацию бином контекста и слушателями, которые подготавливают базы ротации после старта контекста
+     * и удаляют их при его закрытии
+     */
+    void register(ConfigurableApplicationContext context) {
+        context.getBeanFactory().registerSingleton(BEAN_NAME, this);
+        context.getBeanFactory().addBeanPostProcessor(
+                PostgresqlRotationInterceptor.postProcessor(this));
+        context.addApplicationListener((ApplicationListener<ContextRefreshedEvent>) event -> {
+            if (event.getApplicationContext() == context) {
+                prepare();
+            }
+        });
+        context.addApplicationListener((ApplicationListener<ContextClosedEvent>) event -> {
+            if (event.getApplicationContext() == context) {
+                close();
+            }
+        });
+    }
+
+    static void rotate(ExtensionContext context) {
+        var applicationContext = SpringExtension.getApplicationContext(context);
+        if (applicationContext.containsBean(BEAN_NAME)) {
+            applicationContext.getBean(BEAN_NAME, PostgresqlDatabaseRotation.class).rotate();
+        }
+    }
+
+    /**
+     * @return url текущей базы ротации или {@code jdbcUrl}, если ротация в контексте не используется
+     */
+    static String getCurrentJdbcUrl(ExtensionContext context, String jdbcUrl) {
+        var applicationContext = SpringExtension.getApplicationContext(context);
+        if (!applicationContext.containsBean(BEAN_NAME)) {
+            return jdbcUrl;
+        }
+        var rotation = applicationContext.getBean(BEAN_NAME, PostgresqlDatabaseRotation.class);
+        var database = rotation.getCurrentDatabase();
+        return database == null ? jdbcUrl : rotation.getJdbcUrl(database);
+    }
+
+    String getCurrentDatabase() {
+        return currentDatabase;
+    }
+
+    String getJdbcUrl(String database) {
+        return jdbcUrlFactory.apply(database);
+    }
+
+    synchronized void addInterceptor(PostgresqlRotationInterceptor interceptor) {
+        interceptors.add(interceptor);
+    }
+
+    /**
+     * Отдает приложению следующую чистую базу, а использованную в предыдущем тесте очищает в фоне
+     */
+    synchronized void rotate() {
+        if (currentDatabase == null) {
+            return;
+        }
+        if (dirty) {
+            var usedDatabase = currentDatabase;
+            cleanups.put(usedDatabase, CompletableFuture.runAsync(() -> cleanup(usedDatabase), CLEANUP_EXECUTOR));
+            var nextDatabase = databases.get((databases.indexOf(usedDatabase) + 1) % databases.size());
+            var startedAt = System.nanoTime();
+            cleanups.getOrDefault(nextDatabase, CompletableFuture.completedFuture(null)).join();
+            log.debug("Rotated to database {}, waited for cleanup {} ms",
+                    nextDatabase,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+            currentDatabase = nextDatabase;
+        }
+        dirty = true;
+    }
+
+    synchronized void prepare() {
+        if (currentDatabase != null) {
+            return;
+        }
+        var startedAt = System.nanoTime();
+        var jdbcUrl = getJdbcUrl(databaseName);
+        PostgresqlDatabaseCleaner.cleanupDatabaseTables(jdbcUrl, username, password, excludedTables, truncateMode);
+        PostgresqlDatabaseCleaner.closeConnections(jdbcUrl::equals);
+        interceptors.forEach(PostgresqlRotationInterceptor::closeTemplateDataSource);
+        var rotation = ROTATION_COUNTER.incrementAndGet();
+        for (var i = 1; i <= size; i++) {
+            databases.add("%s_rotation_%d_%d".formatted(databaseName, rotation, i));
+        }
+        createDatabases();
+        currentDatabase = databases.getFirst();
+        log.info("Prepared {} rotation databases from {} in {} ms",
+                databases.size(),
+                databaseName,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+    }
+
+    /**
+     * Дожидается фоновых очисток, закрывает соединения очистки к базам ротации и удаляет сами базы
+     */
+    synchronized void close() {
+        if (databases.isEmpty()) {
+            return;
+        }
+        cleanups.values().forEach(cleanup -> cleanup.exceptionally(ex -> null).join());
+        cleanups.clear();
+        var jdbcUrls = databases.stream()
+                .map(this::getJdbcUrl)
+                .toList();
+        PostgresqlDatabaseCleaner.closeConnections(jdbcUrls::contains);
+        try (
+                var connection = DriverManager.getConnection(getJdbcUrl(getAdminDatabaseName()), username, password);
+                var statement = connection.createStatement()) {
+            for (var database : databases) {
+                statement.execute("DROP DATABASE IF EXISTS %s WITH (FORCE)".formatted(database));
+            }
+            log.info("Dropped {} rotation databases of {}", databases.size(), databaseName);
+        } catch (Exception ex) {
+            log.warn("Error when dropping rotation databases of {}", databaseName, ex);
+        }
+        databases.clear();
+        currentDatabase = null;
+    }
+
+    @SneakyThrows
+    private void createDatabases() {
+        // копируемая база не должна иметь других подключений, включая это
+        try (
+                var connection = DriverManager.getConnection(getJdbcUrl(getAdminDatabaseName()), username, password);
+                var terminate = connection.prepareStatement(TERMINATE_CONNECTIONS_QUERY);
+                var statement = connection.createStatement()) {
+            terminate.setString(1, databaseName);
+            terminate.execute();
+            for (var database : databases) {
+                statement.execute("CREATE DATABASE %s TEMPLATE %s".formatted(database, databaseName));
+            }
+        }
+    }
+
+    private String getAdminDatabaseName() {
+        return ADMIN_DATABASE_NAME.equals(databaseName)
+                ? FALLBACK_ADMIN_DATABASE_NAME
+                : ADMIN_DATABASE_NAME;
+    }
+
+    private void cleanup(String database) {
+        try {
+            PostgresqlDatabaseCleaner.cleanupDatabaseTables(
+                    getJdbcUrl(database),
+                    username,
+                    password,
+                    excludedTables,
+                    truncateMode);
+        } catch (Exception ex) {
+            log.warn("Error when cleaning rotation database {}", database, ex);
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package dev.vality.testcontainers.annotations.postgresql;
+
+import dev.vality.testcontainers.annotations.postgresql.constants.FixtureFormat;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Аннотация {@code @PostgresqlFixture} загружает тестовые данные из ресурса в таблицу перед каждым тестом,
+ * после очистки таблиц. Работает вместе с {@link PostgresqlTestcontainer}, {@link PostgresqlTestcontainerSingleton}
+ * и {@link EmbeddedPostgresqlTest}
+ * <p>Ресурс передается серверу потоком через {@code COPY ... FROM STDIN}, не загружаясь в память целиком.
+ * Ресурсы с расширением {@code .gz} распаковываются на лету. Таблицы загружаются параллельно через отдельные
+ * соединения в порядке внешних ключей: сначала таблицы, на которые ссылаются остальные. Таблицы, связанные
+ * циклическими ссылками, загружаются последними с отключенными триггерами внешних ключей
+ * <p>Аннотации на классе загружаются перед каждым тестом класса, аннотации на методе — только перед этим тестом.
+ * Если таблицы не очищаются между тестами ({@code truncateTables = false}), аннотации на классе загружаются
+ * один раз перед первым тестом класса
+ * <pre> {@code
+ * @PostgresqlTestcontainerSingleton
+ * @PostgresqlFixture(table = "currency", resource = "fixtures/currency.csv")
+ * @PostgresqlFixture(table = "invoice", resource = "fixtures/invoice.bin.gz", format = FixtureFormat.BINARY)
+ * @SpringBootTest
+ * public class InvoiceDaoTest {
+ *
+ *     @Test
+ *     @PostgresqlFixture(table = "payment", resource = "fixtures/payment.csv")
+ *     void shouldFindPayments() {
+ *       ...
+ *     }
+ * }}</pre>
+ *
+ * @see FixtureFormat FixtureFormat
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Repeatable(PostgresqlFixtures.class)
+public @interface PostgresqlFixture {
+
+    /**
+     * Таблица, в которую загружаются данные
+     * <p>
+     * пример — table = "public.invoice"
+     */
+    String table();
+
+    /**
+     * Ресурс с данными в формате {@link org.springframework.core.io.ResourceLoader}.
+     * Путь без префикса ищется в classpath
+     * <p>
+     * пример — resource = "fixtures/invoice.csv", resource = "file:/tmp/invoice.csv"
+     */
+    String resource();
+
+    /**
+     * Формат данных ресурса
+     *
+     * @see FixtureFormat FixtureFormat
+     */
+    FixtureFormat format() default FixtureFormat.CSV;
+
+    /**
+     * Колонки таблицы в порядке следования в ресурсе. По умолчанию — все колонки таблицы
+     * <p>
+     * пример — columns = {"id", "amount"}
+     */
+    String[] columns() default {};
+
+    /**
+     * Первая строка ресурса — заголовок.
+     * Используется только если {@link #format()} = {@link FixtureFormat#CSV}
+     */
+    boolean header() default true;
+}
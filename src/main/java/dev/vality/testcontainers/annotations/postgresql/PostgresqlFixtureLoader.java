@@ -0,0 +1,236 @@
+package dev.vality.testcontainers.annotations.postgresql;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.postgresql.PGConnection;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Загрузка тестовых данных {@link PostgresqlFixture} через {@code COPY ... FROM STDIN}
+ * <p>Таблицы разбиваются на уровни по внешним ключам между ними: на нулевом уровне таблицы, которые
+ * не ссылаются на другие загружаемые таблицы, на следующем — ссылающиеся только на предыдущие уровни.
+ * Таблицы одного уровня загружаются параллельно, каждая через свое соединение, поэтому проверки внешних
+ * ключей не отключаются. Таблицы из циклов ссылок загружаются последним уровнем
+ * с {@code session_replication_role = replica}
+ * <p>Если таблицы не очищаются между тестами, данные аннотаций класса загружаются один раз перед первым тестом
+ * класса: после него они остаются в таблицах, и повторный {@code COPY} нарушил бы уникальные ключи
+ */
+@Slf4j
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+class PostgresqlFixtureLoader {
+
+    private static final String TABLE_NAMES_QUERY = "SELECT to_regclass(?)::text";
+    private static final String FOREIGN_KEYS_QUERY = """
+            SELECT conrelid::regclass::text, confrelid::regclass::text
+            FROM pg_constraint
+            WHERE contype = 'f'
+              AND conparentid = 0
+              AND conrelid <> confrelid
+              AND conrelid::regclass::text = ANY (?::text[])
+              AND confrelid::regclass::text = ANY (?::text[])
+            """;
+    private static final ExtensionContext.Namespace NAMESPACE =
+            ExtensionContext.Namespace.create(PostgresqlFixtureLoader.class);
+    private static final String CLASS_FIXTURES_LOADED_KEY = "class-fixtures-loaded";
+    private static final ExecutorService COPY_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        var thread = new Thread(runnable, "postgresql-fixture-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Загружает данные из аннотаций {@link PostgresqlFixture} тестового класса и тестового метода
+     *
+     * @param tablesReset таблицы очищаются перед каждым тестом, иначе данные аннотаций класса загружаются
+     *                    только перед первым тестом класса
+     */
+    static void load(
+            ExtensionContext context,
+            String jdbcUrl,
+            String username,
+            String password,
+            boolean tablesReset) {
+        var fixtures = new ArrayList<PostgresqlFixture>();
+        var classFixtures = AnnotationSupport.findRepeatableAnnotations(
+                context.getRequiredTestClass(), PostgresqlFixture.class);
+        if (!classFixtures.isEmpty() && (tablesReset || markClassFixturesLoaded(context))) {
+            fixtures.addAll(classFixtures);
+        }
+        fixtures.addAll(AnnotationSupport.findRepeatableAnnotations(
+                context.getTestMethod(), PostgresqlFixture.class));
+        if (fixtures.isEmpty()) {
+            return;
+        }
+        load(PostgresqlDatabaseRotation.getCurrentJdbcUrl(context, jdbcUrl), username, password, fixtures);
+    }
+
+    /**
+     * @return true, если данные аннотаций класса еще не загружались
+     */
+    private static boolean markClassFixturesLoaded(ExtensionContext context) {
+        var classContext = context.getParent().orElse(context);
+        return classContext.getStore(NAMESPACE)
+                .getOrComputeIfAbsent(CLASS_FIXTURES_LOADED_KEY, key -> new AtomicBoolean(), AtomicBoolean.class)
+                .compareAndSet(false, true);
+    }
+
+    @SneakyThrows
+    private static void load(String jdbcUrl, String username, String password, List<PostgresqlFixture> fixtures) {
+        var startedAt = System.nanoTime();
+        var tableFixtures = new LinkedHashMap<String, List<PostgresqlFixture>>();
+        LoadPlan plan;
+        try (var connection = DriverManager.getConnection(jdbcUrl, username, password)) {
+            for (var fixture : fixtures) {
+                tableFixtures.computeIfAbsent(getTableName(connection, fixture.table()), key -> new ArrayList<>())
+                        .add(fixture);
+            }
+            plan = getLoadPlan(connection, tableFixtures.keySet());
+        }
+        for (var level : plan.levels()) {
+            copyTables(jdbcUrl, username, password, level, tableFixtures, false);
+        }
+        copyTables(jdbcUrl, username, password, plan.cyclicTables(), tableFixtures, true);
+        log.debug("Loaded {} fixtures into {} tables in {} ms",
+                fixtures.size(),
+                tableFixtures.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+    }
+
+    @SneakyThrows
+    private static String getTableName(Connection connection, String table) {
+        try (var statement = connection.prepareStatement(TABLE_NAMES_QUERY)) {
+            statement.setString(1, table);
+            try (var resultSet = statement.executeQuery()) {
+                var tableName = resultSet.next() ? resultSet.getString(1) : null;
+                if (tableName == null) {
+                    throw new IllegalArgumentException("Fixture table %s does not exist".formatted(table));
+                }
+                return tableName;
+            }
+        }
+    }
+
+    /**
+     * Топологическая сортировка таблиц по внешним ключам. Таблицы, оставшиеся после сортировки,
+     * участвуют в циклах ссылок
+     */
+    @SneakyThrows
+    private static LoadPlan getLoadPlan(Connection connection, Set<String> tables) {
+        var dependencies = new HashMap<String, Set<String>>();
+        tables.forEach(table -> dependencies.put(table, new HashSet<>()));
+        try (var statement = connection.prepareStatement(FOREIGN_KEYS_QUERY)) {
+            var array = connection.createArrayOf("text", tables.toArray());
+            statement.setArray(1, array);
+            statement.setArray(2, array);
+            try (var resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    dependencies.get(resultSet.getString(1)).add(resultSet.getString(2));
+                }
+            }
+        }
+        var levels = new ArrayList<List<String>>();
+        var loaded = new HashSet<String>();
+        var remaining = new ArrayList<>(tables);
+        while (!remaining.isEmpty()) {
+            var level = remaining.stream()
+                    .filter(table -> loaded.containsAll(dependencies.get(table)))
+                    .toList();
+            if (level.isEmpty()) {
+                log.debug("Fixture tables {} have cyclic foreign keys", remaining);
+                break;
+            }
+            levels.add(level);
+            loaded.addAll(level);
+            remaining.removeAll(level);
+        }
+        return new LoadPlan(levels, remaining);
+    }
+
+    /**
+     * Загружает таблицы параллельно, каждую через свое соединение
+     */
+    @SneakyThrows
+    private static void copyTables(
+            String jdbcUrl,
+            String username,
+            String password,
+            List<String> tables,
+            Map<String, List<PostgresqlFixture>> tableFixtures,
+            boolean replicationRole) {
+        var futures = tables.stream()
+                .map(table -> CompletableFuture.runAsync(
+                        () -> copy(jdbcUrl, username, password, table, tableFixtures.get(table), replicationRole),
+                        COPY_EXECUTOR))
+                .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    @SneakyThrows
+    private static void copy(
+            String jdbcUrl,
+            String username,
+            String password,
+            String table,
+            List<PostgresqlFixture> fixtures,
+            boolean replicationRole) {
+        try (var connection = DriverManager.getConnection(jdbcUrl, username, password)) {
+            if (replicationRole) {
+                try (var statement = connection.createStatement()) {
+                    statement.execute("SET session_replication_role = replica");
+                }
+            }
+            var copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            for (var fixture : fixtures) {
+                try (var inputStream = getInputStream(fixture.resource())) {
+                    var rows = copyManager.copyIn(getCopySql(table, fixture), inputStream);
+                    log.debug("Loaded {} rows into {} from {}", rows, table, fixture.resource());
+                }
+            }
+        }
+    }
+
+    private static String getCopySql(String table, PostgresqlFixture fixture) {
+        var columns = fixture.columns().length == 0 ? "" : " (" + String.join(", ", fixture.columns()) + ")";
+        var options = switch (fixture.format()) {
+            case CSV -> "FORMAT csv, HEADER " + fixture.header();
+            case TEXT -> "FORMAT text";
+            case BINARY -> "FORMAT binary";
+        };
+        return "COPY %s%s FROM STDIN (%s)".formatted(table, columns, options);
+    }
+
+    @SneakyThrows
+    private static InputStream getInputStream(String location) {
+        var inputStream = new DefaultResourceLoader().getResource(location).getInputStream();
+        return location.endsWith(".gz") ? new GZIPInputStream(inputStream) : inputStream;
+    }
+
+    private record LoadPlan(List<List<String>> levels, List<String> cyclicTables) {
+    }
+}
@@ -0,0 +1,18 @@
+package dev.vality.testcontainers.annotations.postgresql;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Контейнер для повторяющейся аннотации {@link PostgresqlFixture}
+ *
+ * @see PostgresqlFixture @PostgresqlFixture
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface PostgresqlFixtures {
+
+    PostgresqlFixture[] value();
+}
@@ -0,0 +1,32 @@
+package dev.vality.testcontainers.annotations.postgresql;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Аннотация {@code @PostgresqlLoggedTables} на тестовом методе возвращает таблицам режим {@code LOGGED}
+ * на время этого теста, если для тестового класса включен параметр {@code unloggedTables}.
+ * Перед следующим тестом без аннотации таблицы снова переводятся в {@code UNLOGGED}
+ * <p>Нужна для тестов, которые проверяют поведение, зависящее от WAL, например логическую репликацию
+ * <pre> {@code
+ * @PostgresqlTestcontainer(unloggedTables = true)
+ * @SpringBootTest
+ * public class ReplicationTest {
+ *
+ *     @Test
+ *     @PostgresqlLoggedTables
+ *     void shouldReplicateChanges() {
+ *       ...
+ *     }
+ * }}</pre>
+ *
+ * @see PostgresqlTestcontainer#unloggedTables() PostgresqlTestcontainer#unloggedTables()
+ * @see PostgresqlTestcontainerSingleton#unloggedTables() PostgresqlTestcontainerSingleton#unloggedTables()
+ * @see EmbeddedPostgresqlTest#unloggedTables() EmbeddedPostgresqlTest#unloggedTables()
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface PostgresqlLoggedTables {
+}
@@ -0,0 +1,219 @@
+package dev.vality.testcontainers.annotations.postgresql;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import dev.vality.testcontainers.annotations.postgresql.constants.PlanGuardMode;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import static dev.vality.testcontainers.annotations.util.SpringApplicationPropertiesLoader.loadDefaultLibraryProperty;
+
+/**
+ * Проверка планов запросов для параметра аннотаций {@code planGuard}
+ * <p>{@link PostgresqlPlanGuardInterceptor} запоминает запросы, которые приложение выполняет в тесте.
+ * После теста для каждого запроса строится план {@code EXPLAIN (GENERIC_PLAN, FORMAT JSON)} и сводится
+ * к сигнатуре: типы узлов, типы соединений, таблицы и индексы. Сигнатуры сравниваются с базовыми из файла
+ * тестового класса в каталоге {@code testcontainers.postgresql.plan-baseline-directory}: новые запросы
+ * дописываются в файл, а изменившиеся планы (например, {@code Index Scan} стал {@code Seq Scan}
+ * или поменялся порядок соединения) обрабатываются согласно {@link PlanGuardMode}.
+ * С {@code testcontainers.postgresql.plan-baseline-update: 'true'} изменившиеся планы перезаписываются в файл
+ * <p>{@code GENERIC_PLAN} поддерживается начиная с PostgreSQL 16
+ */
+@Slf4j
+@RequiredArgsConstructor
+class PostgresqlPlanGuard {
+
+    static final String BEAN_NAME = "postgresqlPlanGuard";
+    private static final String BASELINE_DIRECTORY_PROPERTY = "testcontainers.postgresql.plan-baseline-directory";
+    private static final String BASELINE_UPDATE_PROPERTY = "testcontainers.postgresql.plan-baseline-update";
+    private static final String REPORT_ENTRY_KEY = "postgresql-plan-changes";
+    private static final String EXPLAIN_QUERY = "EXPLAIN (GENERIC_PLAN, FORMAT JSON) ";
+    private static final Pattern EXPLAINABLE_STATEMENT =
+            Pattern.compile("^\\s*(SELECT|INSERT|UPDATE|DELETE|WITH)\\b", Pattern.CASE_INSENSITIVE);
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final Class<?> testClass;
+    private final PlanGuardMode mode;
+    private final Set<String> statements = ConcurrentHashMap.newKeySet();
+    private Map<String, String> baseline;
+
+    void register(ConfigurableApplicationContext context) {
+        context.getBeanFactory().registerSingleton(BEAN_NAME, this);
+        context.getBeanFactory().addBeanPostProcessor(
+                PostgresqlPlanGuardInterceptor.postProcessor(this));
+    }
+
+    static void clear(ExtensionContext context) {
+        find(context).ifPresent(planGuard -> planGuard.statements.clear());
+    }
+
+    static void verify(ExtensionContext context, String jdbcUrl, String username, String password) {
+        find(context).ifPresent(planGuard -> planGuard.verify(
+                context,
+                PostgresqlDatabaseRotation.getCurrentJdbcUrl(context, jdbcUrl),
+                username,
+                password));
+    }
+
+    void record(String sql) {
+        if (EXPLAINABLE_STATEMENT.matcher(sql).find() && !sql.contains(PostgresqlDatabaseCleaner.SERVICE_SCHEMA)) {
+            statements.add(sql.replaceAll("\\s+", " ").trim());
+        }
+    }
+
+    @SneakyThrows
+    private synchronized void verify(ExtensionContext context, String jdbcUrl, String username, String password) {
+        var recorded = new TreeSet<>(statements);
+        statements.clear();
+        if (recorded.isEmpty()) {
+            return;
+        }
+        var plans = getBaseline();
+        var update = Boolean.parseBoolean(loadDefaultLibraryProperty(BASELINE_UPDATE_PROPERTY).trim());
+        var changes = new ArrayList<String>();
+        var updated = false;
+        try (
+                var connection = DriverManager.getConnection(jdbcUrl, username, password);
+                var statement = connection.createStatement()) {
+            for (var sql : recorded) {
+                var plan = explain(statement, sql);
+                var expected = plans.get(sql);
+                if (plan == null || plan.equals(expected)) {
+                    continue;
+                }
+                if (expected == null || update) {
+                    plans.put(sql, plan);
+                    updated = true;
+                } else {
+                    changes.add("%s%n  expected: %s%n  actual:   %s".formatted(sql, expected, plan));
+                }
+            }
+        }
+        if (updated) {
+            var file = getBaselineFile();
+            Files.createDirectories(file.getParent());
+            OBJECT_MAPPER.writeValue(file.toFile(), plans);
+        }
+        if (!changes.isEmpty()) {
+            var message = "Query plans changed in %s:%n%s".formatted(
+                    context.getDisplayName(),
+                    String.join(System.lineSeparator(), changes));
+            context.publishReportEntry(REPORT_ENTRY_KEY, message);
+            if (mode == PlanGuardMode.FAIL) {
+                throw new AssertionError(message);
+            }
+            log.warn(message);
+        }
+    }
+
+    @SneakyThrows
+    private Map<String, String> getBaseline() {
+        if (baseline == null) {
+            var file = getBaselineFile();
+            baseline = new TreeMap<>();
+            if (Files.exists(file)) {
+                OBJECT_MAPPER.readTree(file.toFile()).fields()
+                        .forEachRemaining(entry -> baseline.put(entry.getKey(), entry.getValue().asText()));
+            }
+        }
+        return baseline;
+    }
+
+    private Path getBaselineFile() {
+        return Path.of(loadDefaultLibraryProperty(BASELINE_DIRECTORY_PROPERTY), testClass.getName() + ".json");
+    }
+
+    /**
+     * @return сигнатура плана или null, если план не удалось построить (например, таблица уже удалена)
+     */
+    @SneakyThrows
+    private static String explain(Statement statement, String sql) {
+        try (var resultSet = statement.executeQuery(EXPLAIN_QUERY + toNativeParameters(sql))) {
+            resultSet.next();
+            return getSignature(OBJECT_MAPPER.readTree(resultSet.getString(1)).get(0).get("Plan"));
+        } catch (SQLException ex) {
+            log.debug("Unable to explain statement {}", sql, ex);
+            return null;
+        }
+    }
+
+    private static String getSignature(JsonNode node) {
+        var signature = new StringBuilder(node.path("Node Type").asText());
+        if (node.has("Join Type")) {
+            signature.append(' ').append(node.get("Join Type").asText());
+        }
+        var targets = new ArrayList<String>();
+        if (node.has("Relation Name")) {
+            targets.add(node.get("Relation Name").asText());
+        }
+        if (node.has("Index Name")) {
+            targets.add(node.get("Index Name").asText());
+        }
+        if (!targets.isEmpty()) {
+            signature.append('(').append(String.join(" using ", targets)).append(')');
+        }
+        if (node.has("Plans")) {
+            var children = new ArrayList<String>();
+            node.get("Plans").forEach(child -> children.add(getSignature(child)));
+            signature.append(" -> [").append(String.join(", ", children)).append(']');
+        }
+        return signature.toString();
+    }
+
+    /**
+     * Заменяет JDBC-параметры {@code ?} на {@code $1, $2, ...} вне строковых литералов и идентификаторов
+     * в кавычках. {@code ??} — экранированный оператор {@code ?} драйвера PostgreSQL
+     */
+    private static String toNativeParameters(String sql) {
+        var result = new StringBuilder(sql.length() + 16);
+        var parameter = 0;
+        var quote = (char) 0;
+        for (var i = 0; i < sql.length(); i++) {
+            var current = sql.charAt(i);
+            if (quote != 0) {
+                if (current == quote) {
+                    quote = 0;
+                }
+                result.append(current);
+            } else if (current == '\'' || current == '"') {
+                quote = current;
+                result.append(current);
+            } else if (current == '?' && i + 1 < sql.length() && sql.charAt(i + 1) == '?') {
+                result.append('?');
+                i++;
+            } else if (current == '?') {
+                result.append('$').append(++parameter);
+            } else {
+                result.append(current);
+            }
+        }
+        return result.toString();
+    }
+
+    private static Optional<PostgresqlPlanGuard> find(ExtensionContext context) {
+        var applicationContext = SpringExtension.getApplicationContext(context);
+        return applicationContext.containsBean(BEAN_NAME)
+                ? Optional.of(applicationContext.getBean(BEAN_NAME, PostgresqlPlanGuard.class))
+                : Optional.empty();
+    }
+}
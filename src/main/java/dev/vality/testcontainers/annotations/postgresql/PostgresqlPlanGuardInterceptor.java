@@ -0,0 +1,84 @@
+package dev.vality.testcontainers.annotations.postgresql;
+
+import lombok.RequiredArgsConstructor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * Перехватчик {@link DataSource} для {@link PostgresqlPlanGuard}, который запоминает текст запросов,
+ * выполняемых приложением через {@link Connection#prepareStatement} и {@link Statement}
+ * <p>Оборачивает соединение, уже полученное остальными перехватчиками, поэтому вызывается первым
+ */
+class PostgresqlPlanGuardInterceptor extends PostgresqlDataSourceInterceptor {
+
+    private static final Set<String> STATEMENT_SQL_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "addBatch");
+
+    private final PostgresqlPlanGuard planGuard;
+
+    PostgresqlPlanGuardInterceptor(DataSource target, PostgresqlPlanGuard planGuard) {
+        super(target);
+        this.planGuard = planGuard;
+    }
+
+    static DataSourcePostProcessor postProcessor(PostgresqlPlanGuard planGuard) {
+        return new DataSourcePostProcessor(
+                "plan guard",
+                target -> new PostgresqlPlanGuardInterceptor(target, planGuard));
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    protected Object getConnection(MethodInvocation invocation) throws Throwable {
+        return Proxy.newProxyInstance(
+                PostgresqlPlanGuardInterceptor.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new RecordingHandler(invocation.proceed(), planGuard));
+    }
+
+    /**
+     * Запоминает текст запроса при подготовке {@code PreparedStatement} или при выполнении {@link Statement}
+     * и проксирует созданные соединением {@link Statement}
+     */
+    @RequiredArgsConstructor
+    private static class RecordingHandler implements InvocationHandler {
+
+        private final Object target;
+        private final PostgresqlPlanGuard planGuard;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            var name = method.getName();
+            if (args != null && args.length > 0 && args[0] instanceof String sql
+                    && ("prepareStatement".equals(name) || STATEMENT_SQL_METHODS.contains(name))) {
+                planGuard.record(sql);
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getTargetException();
+            }
+            if ("createStatement".equals(name) && result instanceof Statement statement) {
+                return Proxy.newProxyInstance(
+                        PostgresqlPlanGuardInterceptor.class.getClassLoader(),
+                        new Class<?>[]{Statement.class},
+                        new RecordingHandler(statement, planGuard));
+            }
+            return result;
+        }
+    }
+}
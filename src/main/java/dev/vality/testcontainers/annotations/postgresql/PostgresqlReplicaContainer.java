@@ -0,0 +1,56 @@
+package dev.vality.testcontainers.annotations.postgresql;
+
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.Network;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Реплика {@link PostgresqlContainerExtension} на потоковой репликации. Контейнер запускается из того же образа,
+ * копирует каталог данных основного сервера через {@code pg_basebackup -R} и стартует в режиме hot standby,
+ * поэтому принимает только читающие запросы. Содержимое {@code UNLOGGED} таблиц на реплику не попадает
+ */
+public class PostgresqlReplicaContainer extends GenericContainer<PostgresqlReplicaContainer> {
+
+    private static final String REPLICA_DATA_DIRECTORY = "/var/lib/postgresql/replica";
+    private static final String START_REPLICA_SCRIPT = """
+            until pg_basebackup -h %1$s -p %2$d -U %3$s -D %4$s -R -X stream -c fast; do
+              rm -rf %4$s
+              sleep 1
+            done
+            chmod 0700 %4$s
+            exec postgres -D %4$s
+            """;
+
+    private final PostgresqlContainerExtension primary;
+
+    public PostgresqlReplicaContainer(PostgresqlContainerExtension primary) {
+        super(DockerImageName.parse(primary.getDockerImageName()));
+        this.primary = primary;
+        withNetworkAliases("postgresql-replica-" + UUID.randomUUID());
+        withNetwork(Network.SHARED);
+        withExposedPorts(PostgreSQLContainer.POSTGRESQL_PORT);
+        withEnv("PGPASSWORD", primary.getPassword());
+        withCreateContainerCmdModifier(cmd -> cmd.withUser("postgres"));
+        withCommand("bash", "-c", START_REPLICA_SCRIPT.formatted(
+                primary.getNetworkAlias(),
+                PostgreSQLContainer.POSTGRESQL_PORT,
+                primary.getUsername(),
+                REPLICA_DATA_DIRECTORY));
+        waitingFor(Wait.forLogMessage(".*database system is ready to accept read-only connections.*\\s", 1)
+                .withStartupTimeout(Duration.ofMinutes(2)));
+    }
+
+    public String getJdbcUrl(String databaseName) {
+        return "jdbc:postgresql://" + getHost() + ":" + getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT) + "/"
+                + databaseName;
+    }
+
+    public String getJdbcUrl() {
+        return getJdbcUrl(primary.getDatabaseName());
+    }
+}
@@ -0,0 +1,160 @@
+package dev.vality.testcontainers.annotations.postgresql;
+
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.postgresql.PGConnection;
+import org.postgresql.jdbc.AutoSave;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+
+/**
+ * Перехватчик {@link DataSource} для
+ * {@link dev.vality.testcontainers.annotations.postgresql.constants.ResetStrategy#ROLLBACK}
+ * <p>Между {@link #begin()} и {@link #rollback()} все соединения, которые получает приложение,
+ * работают поверх одного физического соединения с открытой транзакцией. Логические транзакции приложения
+ * отображаются на savepoint'ы, поэтому {@code commit} и {@code rollback} приложения
+ * не выходят за пределы внешней транзакции теста
+ */
+class PostgresqlRollbackInterceptor extends PostgresqlDataSourceInterceptor {
+
+    private volatile Connection connection;
+    private AutoSave autoSave;
+
+    PostgresqlRollbackInterceptor(DataSource target) {
+        super(target);
+    }
+
+    static DataSourcePostProcessor postProcessor() {
+        return new DataSourcePostProcessor("rollback reset strategy", PostgresqlRollbackInterceptor::new);
+    }
+
+    static void beginTransactions(ExtensionContext context) {
+        find(SpringExtension.getApplicationContext(context), PostgresqlRollbackInterceptor.class)
+                .forEach(PostgresqlRollbackInterceptor::begin);
+    }
+
+    static void rollbackTransactions(ExtensionContext context) {
+        find(SpringExtension.getApplicationContext(context), PostgresqlRollbackInterceptor.class)
+                .forEach(PostgresqlRollbackInterceptor::rollback);
+    }
+
+    @SneakyThrows
+    void begin() {
+        rollback();
+        var physical = target.getConnection();
+        var pgConnection = physical.unwrap(PGConnection.class);
+        autoSave = pgConnection.getAutosave();
+        pgConnection.setAutosave(AutoSave.ALWAYS);
+        physical.setAutoCommit(false);
+        connection = physical;
+    }
+
+    @SneakyThrows
+    void rollback() {
+        var physical = connection;
+        connection = null;
+        if (physical == null) {
+            return;
+        }
+        try {
+            physical.rollback();
+            physical.setAutoCommit(true);
+            physical.unwrap(PGConnection.class).setAutosave(autoSave);
+        } finally {
+            physical.close();
+        }
+    }
+
+    @Override
+    protected Object getConnection(MethodInvocation invocation) throws Throwable {
+        var physical = connection;
+        return physical != null ? proxy(physical) : invocation.proceed();
+    }
+
+    @Override
+    protected Object close(MethodInvocation invocation) throws Throwable {
+        rollback();
+        return invocation.proceed();
+    }
+
+    private static Connection proxy(Connection physical) {
+        return (Connection) Proxy.newProxyInstance(
+                PostgresqlRollbackInterceptor.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new SavepointConnectionHandler(physical));
+    }
+
+    @RequiredArgsConstructor
+    private static class SavepointConnectionHandler implements InvocationHandler {
+
+        private final Connection physical;
+        private boolean autoCommit = true;
+        private boolean closed;
+        private Savepoint savepoint;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "getAutoCommit":
+                    return autoCommit;
+                case "setAutoCommit":
+                    setAutoCommit((boolean) args[0]);
+                    return null;
+                case "commit":
+                    if (savepoint != null) {
+                        physical.releaseSavepoint(savepoint);
+                        savepoint = physical.setSavepoint();
+                    }
+                    return null;
+                case "rollback":
+                    if (args == null && savepoint != null) {
+                        physical.rollback(savepoint);
+                        return null;
+                    } else if (args == null) {
+                        return null;
+                    }
+                    break;
+                case "close":
+                    if (!closed && savepoint != null) {
+                        physical.rollback(savepoint);
+                        physical.releaseSavepoint(savepoint);
+                        savepoint = null;
+                    }
+                    closed = true;
+                    return null;
+                case "isClosed":
+                    return closed;
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getTargetException();
+            }
+        }
+
+        private void setAutoCommit(boolean value) throws SQLException {
+            if (autoCommit == value) {
+                return;
+            }
+            if (value) {
+                physical.releaseSavepoint(savepoint);
+                savepoint = null;
+            } else {
+                savepoint = physical.setSavepoint();
+            }
+            autoCommit = value;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package dev.vality.testcontainers.annotations.postgresql;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Перехватчик {@link DataSource} для
+ * {@link dev.vality.testcontainers.annotations.postgresql.constants.ResetStrategy#ROTATION}
+ * <p>До подготовки ротации отдает соединения исходного бина, то есть основной базы, которую мигрирует Flyway.
+ * После подготовки исходный пул закрывается, а соединения выдаются из пулов, построенных
+ * через {@link DataSourceBuilder#derivedFrom(DataSource)} для текущей базы ротации
+ */
+@Slf4j
+class PostgresqlRotationInterceptor extends PostgresqlDataSourceInterceptor {
+
+    private final PostgresqlDatabaseRotation rotation;
+    private final Map<String, DataSource> dataSources = new ConcurrentHashMap<>();
+
+    PostgresqlRotationInterceptor(DataSource target, PostgresqlDatabaseRotation rotation) {
+        super(target);
+        this.rotation = rotation;
+    }
+
+    static DataSourcePostProcessor postProcessor(PostgresqlDatabaseRotation rotation) {
+        return new DataSourcePostProcessor("rotation reset strategy", target -> {
+            var interceptor = new PostgresqlRotationInterceptor(target, rotation);
+            rotation.addInterceptor(interceptor);
+            return interceptor;
+        });
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        return switch (invocation.getMethod().getName()) {
+            case "unwrap", "isWrapperFor" -> unwrap(invocation);
+            default -> super.invoke(invocation);
+        };
+    }
+
+    @Override
+    protected Object getConnection(MethodInvocation invocation) throws Throwable {
+        var dataSource = getRotationDataSource();
+        if (dataSource == null) {
+            return invocation.proceed();
+        }
+        var arguments = invocation.getArguments();
+        return arguments.length == 0
+                ? dataSource.getConnection()
+                : dataSource.getConnection((String) arguments[0], (String) arguments[1]);
+    }
+
+    @Override
+    protected Object close(MethodInvocation invocation) throws Throwable {
+        for (var dataSource : dataSources.values()) {
+            close(dataSource);
+        }
+        dataSources.clear();
+        return invocation.proceed();
+    }
+
+    private Object unwrap(MethodInvocation invocation) throws Throwable {
+        var dataSource = getRotationDataSource();
+        if (dataSource == null) {
+            return invocation.proceed();
+        }
+        var iface = (Class<?>) invocation.getArguments()[0];
+        return "unwrap".equals(invocation.getMethod().getName())
+                ? dataSource.unwrap(iface)
+                : dataSource.isWrapperFor(iface);
+    }
+
+    /**
+     * Закрывает исходный пул, чтобы основная база освободилась для копирования
+     */
+    void closeTemplateDataSource() {
+        try {
+            close(target);
+        } catch (Exception ex) {
+            log.warn("Error when closing template DataSource", ex);
+        }
+    }
+
+    private DataSource getRotationDataSource() {
+        var database = rotation.getCurrentDatabase();
+        if (database == null) {
+            return null;
+        }
+        return dataSources.computeIfAbsent(database, name -> DataSourceBuilder.derivedFrom(target)
+                .url(rotation.getJdbcUrl(name))
+                .build());
+    }
+
+    private static void close(DataSource dataSource) throws Exception {
+        if (dataSource instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
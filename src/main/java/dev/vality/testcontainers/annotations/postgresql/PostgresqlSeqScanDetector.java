@@ -0,0 +1,178 @@
+package dev.vality.testcontainers.annotations.postgresql;
+
+import dev.vality.testcontainers.annotations.exception.IoException;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.DriverManager;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static dev.vality.testcontainers.annotations.util.SpringApplicationPropertiesLoader.loadDefaultLibraryProperty;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Поиск последовательных сканирований, включаемый параметром {@code testcontainers.postgresql.seq-scan-detection}
+ * <p>В конце подготовки теста запоминаются счетчики {@code pg_stat_user_tables} и {@code pg_stat_user_indexes}
+ * базы теста, после теста считаются их приращения. Таблицы, из которых тест прочитал последовательным
+ * сканированием больше {@code testcontainers.postgresql.seq-scan-row-threshold} строк, публикуются в отчет JUnit,
+ * а общий отчет по запуску, отсортированный по числу прочитанных строк, перезаписывается в файл
+ * {@code testcontainers.postgresql.seq-scan-report-file}
+ * <p>Приращения считаются после отката транзакций теста в режиме
+ * {@link dev.vality.testcontainers.annotations.postgresql.constants.ResetStrategy#ROLLBACK}.
+ * Серверные процессы сбрасывают статистику не чаще раза в секунду, поэтому сканирования
+ * последней секунды теста могут попасть в следующий тест
+ */
+@Slf4j
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+class PostgresqlSeqScanDetector {
+
+    private static final String ROW_THRESHOLD_PROPERTY = "testcontainers.postgresql.seq-scan-row-threshold";
+    private static final String REPORT_FILE_PROPERTY = "testcontainers.postgresql.seq-scan-report-file";
+    private static final String REPORT_ENTRY_KEY = "postgresql-seq-scans";
+    private static final ExtensionContext.Namespace NAMESPACE =
+            ExtensionContext.Namespace.create(PostgresqlSeqScanDetector.class);
+    private static final String TABLE_STATISTICS_QUERY = """
+            SELECT t.relid,
+                   quote_ident(t.schemaname) || '.' || quote_ident(t.relname),
+                   t.seq_scan,
+                   t.seq_tup_read,
+                   coalesce(sum(i.idx_scan), 0),
+                   count(i.indexrelid)
+            FROM pg_stat_user_tables t
+                     LEFT JOIN pg_stat_user_indexes i ON i.relid = t.relid
+            WHERE t.schemaname <> 'testcontainers_annotations'
+            GROUP BY t.relid, t.schemaname, t.relname, t.seq_scan, t.seq_tup_read
+            """;
+    private static final List<Finding> FINDINGS = new ArrayList<>();
+
+    static void snapshot(ExtensionContext context, String jdbcUrl, String username, String password) {
+        var currentJdbcUrl = PostgresqlDatabaseRotation.getCurrentJdbcUrl(context, jdbcUrl);
+        context.getStore(NAMESPACE).put(context.getUniqueId(), getStatistics(currentJdbcUrl, username, password));
+    }
+
+    @SuppressWarnings("unchecked")
+    static void report(ExtensionContext context, String jdbcUrl, String username, String password) {
+        var before = (Map<Long, TableStatistics>) context.getStore(NAMESPACE).remove(context.getUniqueId());
+        if (before == null) {
+            return;
+        }
+        var currentJdbcUrl = PostgresqlDatabaseRotation.getCurrentJdbcUrl(context, jdbcUrl);
+        var threshold = Long.parseLong(loadDefaultLibraryProperty(ROW_THRESHOLD_PROPERTY).trim());
+        var test = context.getRequiredTestClass().getName() + "#" + context.getDisplayName();
+        var findings = new ArrayList<Finding>();
+        for (var after : getStatistics(currentJdbcUrl, username, password).values()) {
+            var previous = before.getOrDefault(
+                    after.relid(),
+                    new TableStatistics(after.relid(), after.table(), 0, 0, 0, 0));
+            var seqScans = after.seqScans() - previous.seqScans();
+            var rowsRead = after.rowsRead() - previous.rowsRead();
+            if (seqScans > 0 && rowsRead > threshold) {
+                findings.add(new Finding(
+                        test,
+                        after.table(),
+                        seqScans,
+                        rowsRead,
+                        after.indexScans() - previous.indexScans(),
+                        after.indexes()));
+            }
+        }
+        if (findings.isEmpty()) {
+            return;
+        }
+        findings.sort(Comparator.comparingLong(Finding::rowsRead).reversed());
+        context.publishReportEntry(REPORT_ENTRY_KEY, findings.stream()
+                .map(Finding::format)
+                .collect(Collectors.joining(System.lineSeparator())));
+        write(findings);
+    }
+
+    @SneakyThrows
+    private static Map<Long, TableStatistics> getStatistics(String jdbcUrl, String username, String password) {
+        var statistics = new HashMap<Long, TableStatistics>();
+        try (
+                var connection = DriverManager.getConnection(jdbcUrl, username, password);
+                var statement = connection.createStatement();
+                var resultSet = statement.executeQuery(TABLE_STATISTICS_QUERY)) {
+            while (resultSet.next()) {
+                var tableStatistics = new TableStatistics(
+                        resultSet.getLong(1),
+                        resultSet.getString(2),
+                        resultSet.getLong(3),
+                        resultSet.getLong(4),
+                        resultSet.getLong(5),
+                        resultSet.getInt(6));
+                statistics.put(tableStatistics.relid(), tableStatistics);
+            }
+        }
+        return statistics;
+    }
+
+    /**
+     * Отчет группирует находки по таблицам: сначала таблицы с наибольшим числом строк,
+     * прочитанных последовательным сканированием за весь запуск
+     */
+    private static synchronized void write(List<Finding> findings) {
+        FINDINGS.addAll(findings);
+        var byTable = FINDINGS.stream()
+                .collect(Collectors.groupingBy(Finding::table, LinkedHashMap::new, Collectors.toList()));
+        var report = new StringBuilder();
+        byTable.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, List<Finding>> entry) ->
+                        entry.getValue().stream().mapToLong(Finding::rowsRead).sum()).reversed())
+                .forEach(entry -> {
+                    report.append(String.format(Locale.ROOT, "%s: %d rows read by seq scans, %d indexes%n",
+                            entry.getKey(),
+                            entry.getValue().stream().mapToLong(Finding::rowsRead).sum(),
+                            entry.getValue().getFirst().indexes()));
+                    entry.getValue().stream()
+                            .sorted(Comparator.comparingLong(Finding::rowsRead).reversed())
+                            .forEach(finding -> report.append("    ").append(finding.format()).append('\n'));
+                });
+        var file = Path.of(loadDefaultLibraryProperty(REPORT_FILE_PROPERTY));
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Files.writeString(file, report, UTF_8);
+        } catch (IOException ex) {
+            throw new IoException("Error when writing seq scan report " + file, ex);
+        }
+        log.debug("Seq scan report written to {}", file);
+    }
+
+    private record TableStatistics(
+            long relid,
+            String table,
+            long seqScans,
+            long rowsRead,
+            long indexScans,
+            int indexes) {
+    }
+
+    private record Finding(
+            String test,
+            String table,
+            long seqScans,
+            long rowsRead,
+            long indexScans,
+            int indexes) {
+
+        String format() {
+            return String.format(Locale.ROOT, "%s %s: %d seq scans read %d rows, %d index scans",
+                    test, table, seqScans, rowsRead, indexScans);
+        }
+    }
+}
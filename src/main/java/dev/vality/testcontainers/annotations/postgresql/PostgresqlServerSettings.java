@@ -0,0 +1,77 @@
+package dev.vality.testcontainers.annotations.postgresql;
+
+import dev.vality.testcontainers.annotations.postgresql.constants.PerformanceProfile;
+import dev.vality.testcontainers.annotations.postgresql.constants.StatementStatistics;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import static dev.vality.testcontainers.annotations.util.SpringApplicationPropertiesLoader.loadDefaultLibraryProperty;
+
+/**
+ * Настройки сервера PostgreSQL для {@link PerformanceProfile}, общие для тестконтейнера и embedded PostgreSQL,
+ * и настройки {@link StatementStatistics} тестконтейнера
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+class PostgresqlServerSettings {
+
+    private static final String PERFORMANCE_PROFILE_PROPERTY = "testcontainers.postgresql.performance-profile";
+    private static final String SHARED_BUFFERS_PROPERTY = "testcontainers.postgresql.shared-buffers";
+    private static final String WAL_BUFFERS_PROPERTY = "testcontainers.postgresql.wal-buffers";
+    private static final String STATEMENT_STATISTICS_PROPERTY = "testcontainers.postgresql.statement-statistics";
+    private static final String AUTO_EXPLAIN_MIN_DURATION_PROPERTY =
+            "testcontainers.postgresql.auto-explain-min-duration";
+
+    static PerformanceProfile resolve(PerformanceProfile performanceProfile) {
+        if (performanceProfile != PerformanceProfile.DEFAULT) {
+            return performanceProfile;
+        }
+        var property = loadDefaultLibraryProperty(PERFORMANCE_PROFILE_PROPERTY);
+        var resolved = PerformanceProfile.valueOf(property.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        return resolved == PerformanceProfile.DEFAULT ? PerformanceProfile.DURABLE : resolved;
+    }
+
+    static boolean isInMemory(PerformanceProfile performanceProfile) {
+        return resolve(performanceProfile) == PerformanceProfile.NON_DURABLE;
+    }
+
+    static Map<String, String> serverConfig(PerformanceProfile performanceProfile) {
+        var config = new LinkedHashMap<String, String>();
+        if (isInMemory(performanceProfile)) {
+            config.put("fsync", "off");
+            config.put("synchronous_commit", "off");
+            config.put("full_page_writes", "off");
+            config.put("shared_buffers", loadDefaultLibraryProperty(SHARED_BUFFERS_PROPERTY));
+            config.put("wal_buffers", loadDefaultLibraryProperty(WAL_BUFFERS_PROPERTY));
+        }
+        return config;
+    }
+
+    static StatementStatistics statementStatistics() {
+        var property = loadDefaultLibraryProperty(STATEMENT_STATISTICS_PROPERTY);
+        return "null".equals(property)
+                ? StatementStatistics.OFF
+                : StatementStatistics.valueOf(property.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+    }
+
+    static Map<String, String> statementStatisticsConfig(StatementStatistics statementStatistics) {
+        var config = new LinkedHashMap<String, String>();
+        switch (statementStatistics) {
+            case STATEMENTS -> {
+                config.put("shared_preload_libraries", "pg_stat_statements");
+            }
+            case EXPLAIN -> {
+                config.put("shared_preload_libraries", "pg_stat_statements,auto_explain");
+                config.put("auto_explain.log_min_duration", loadDefaultLibraryProperty(
+                        AUTO_EXPLAIN_MIN_DURATION_PROPERTY));
+                config.put("auto_explain.log_nested_statements", "on");
+            }
+            case OFF -> {
+            }
+        }
+        return config;
+    }
+}
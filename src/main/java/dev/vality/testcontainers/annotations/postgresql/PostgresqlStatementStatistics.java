@@ -0,0 +1,134 @@
+package dev.vality.testcontainers.annotations.postgresql;
+
+import dev.vality.testcontainers.annotations.exception.IoException;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.DriverManager;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static dev.vality.testcontainers.annotations.util.SpringApplicationPropertiesLoader.loadDefaultLibraryProperty;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Отчет {@code pg_stat_statements} по каждому тесту для
+ * {@link dev.vality.testcontainers.annotations.postgresql.constants.StatementStatistics}
+ * <p>Перед тестом статистика базы теста (и ее баз ротации) сбрасывается, после теста самые дорогие
+ * по суммарному времени запросы публикуются через {@link ExtensionContext#publishReportEntry(String, String)}
+ * и дописываются в файл тестового класса в каталоге {@code testcontainers.postgresql.statement-statistics-directory}.
+ * Расширение {@code pg_stat_statements} создается в служебной базе {@code postgres}, чтобы не добавлять
+ * объекты в схему тестовой базы
+ */
+@Slf4j
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+class PostgresqlStatementStatistics {
+
+    private static final String REPORT_DIRECTORY_PROPERTY =
+            "testcontainers.postgresql.statement-statistics-directory";
+    private static final String REPORT_ENTRY_KEY = "pg_stat_statements";
+    private static final String ADMIN_DATABASE_NAME = "postgres";
+    private static final int TOP_STATEMENTS = 10;
+    private static final int MAX_QUERY_LENGTH = 200;
+    private static final String CREATE_EXTENSION = "CREATE EXTENSION IF NOT EXISTS pg_stat_statements";
+    private static final String DATABASE_FILTER = "(d.datname = ? OR d.datname LIKE ? || '\\_rotation\\_%')";
+    private static final String RESET_QUERY = "SELECT pg_stat_statements_reset(0, d.oid, 0) " +
+            "FROM pg_database d WHERE " + DATABASE_FILTER;
+    private static final String TOP_STATEMENTS_QUERY = """
+            SELECT s.query,
+                   s.calls,
+                   s.total_exec_time,
+                   s.mean_exec_time,
+                   s.rows,
+                   s.shared_blks_hit,
+                   s.shared_blks_read
+            FROM pg_stat_statements s
+                     JOIN pg_database d ON d.oid = s.dbid
+            WHERE %s
+              AND s.query NOT LIKE '%%testcontainers_annotations%%'
+              AND s.query NOT LIKE '%%session_replication_role%%'
+            ORDER BY s.total_exec_time DESC
+            LIMIT %d
+            """.formatted(DATABASE_FILTER, TOP_STATEMENTS);
+    private static final Set<String> INSTALLED_EXTENSIONS = ConcurrentHashMap.newKeySet();
+    private static final Set<Class<?>> REPORTED_CLASSES = ConcurrentHashMap.newKeySet();
+
+    @SneakyThrows
+    static void reset(PostgresqlContainerExtension container, String databaseName) {
+        var jdbcUrl = container.getJdbcUrl(ADMIN_DATABASE_NAME);
+        try (var connection = DriverManager.getConnection(jdbcUrl, container.getUsername(), container.getPassword())) {
+            if (INSTALLED_EXTENSIONS.add(jdbcUrl)) {
+                try (var statement = connection.createStatement()) {
+                    statement.execute(CREATE_EXTENSION);
+                }
+            }
+            try (var statement = connection.prepareStatement(RESET_QUERY)) {
+                statement.setString(1, databaseName);
+                statement.setString(2, databaseName);
+                statement.execute();
+            }
+        }
+    }
+
+    @SneakyThrows
+    static void report(ExtensionContext context, PostgresqlContainerExtension container, String databaseName) {
+        var report = new StringBuilder(String.format(Locale.ROOT, "%12s %10s %10s %10s %7s  %s%n",
+                "total_ms", "calls", "mean_ms", "rows", "hit_%", "query"));
+        var jdbcUrl = container.getJdbcUrl(ADMIN_DATABASE_NAME);
+        try (
+                var connection = DriverManager.getConnection(jdbcUrl, container.getUsername(), container.getPassword());
+                var statement = connection.prepareStatement(TOP_STATEMENTS_QUERY)) {
+            statement.setString(1, databaseName);
+            statement.setString(2, databaseName);
+            try (var resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    var blocks = resultSet.getLong(6) + resultSet.getLong(7);
+                    report.append(String.format(Locale.ROOT, "%12.2f %10d %10.3f %10d %7.1f  %s%n",
+                            resultSet.getDouble(3),
+                            resultSet.getLong(2),
+                            resultSet.getDouble(4),
+                            resultSet.getLong(5),
+                            blocks == 0 ? 100.0 : 100.0 * resultSet.getLong(6) / blocks,
+                            normalize(resultSet.getString(1))));
+                }
+            }
+        }
+        context.publishReportEntry(REPORT_ENTRY_KEY, report.toString());
+        write(context, report.toString());
+    }
+
+    private static String normalize(String query) {
+        var normalized = query.replaceAll("\\s+", " ").trim();
+        return normalized.length() > MAX_QUERY_LENGTH
+                ? normalized.substring(0, MAX_QUERY_LENGTH) + "..."
+                : normalized;
+    }
+
+    /**
+     * Файл тестового класса перезаписывается при первом отчете в этом запуске, затем дополняется
+     */
+    private static void write(ExtensionContext context, String report) {
+        var testClass = context.getRequiredTestClass();
+        var file = Path.of(loadDefaultLibraryProperty(REPORT_DIRECTORY_PROPERTY), testClass.getName() + ".txt");
+        var section = "## %s%n%s%n".formatted(context.getDisplayName(), report);
+        try {
+            Files.createDirectories(file.getParent());
+            if (REPORTED_CLASSES.add(testClass)) {
+                Files.writeString(file, section, UTF_8);
+            } else {
+                Files.writeString(file, section, UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+        } catch (IOException ex) {
+            throw new IoException("Error when writing statement statistics report " + file, ex);
+        }
+        log.debug("Statement statistics of {} written to {}", context.getDisplayName(), file);
+    }
+}
@@ -0,0 +1,65 @@
+package dev.vality.testcontainers.annotations.postgresql;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.ContextRefreshedEvent;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Режим {@code UNLOGGED} для пользовательских таблиц, включаемый параметром {@code unloggedTables} аннотаций
+ * <p>Таблицы переводятся в {@code UNLOGGED} слушателем {@link ContextRefreshedEvent}, то есть после того,
+ * как Flyway применил миграции при старте контекста, а перед каждым тестом режим приводится к нужному
+ * с учетом {@link PostgresqlLoggedTables}. Переключение выполняется после очистки таблиц, поэтому
+ * перезапись таблиц в другой режим почти ничего не стоит
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+class PostgresqlTablesPersistence {
+
+    private static final Map<String, Boolean> LOGGED_TABLES = new ConcurrentHashMap<>();
+
+    static void registerListener(
+            ConfigurableApplicationContext context,
+            String jdbcUrl,
+            String username,
+            String password,
+            List<String> excludedTables) {
+        context.addApplicationListener((ApplicationListener<ContextRefreshedEvent>) event -> {
+            if (event.getApplicationContext() == context) {
+                setTablesLogged(jdbcUrl, username, password, excludedTables, false);
+            }
+        });
+    }
+
+    /**
+     * Приводит режим таблиц к запрошенному тестом, если он отличается от установленного ранее
+     */
+    static void prepare(
+            ExtensionContext context,
+            String jdbcUrl,
+            String username,
+            String password,
+            List<String> excludedTables) {
+        var logged = AnnotationSupport.isAnnotated(context.getTestMethod(), PostgresqlLoggedTables.class);
+        if (!Objects.equals(LOGGED_TABLES.get(jdbcUrl), logged)) {
+            setTablesLogged(jdbcUrl, username, password, excludedTables, logged);
+        }
+    }
+
+    private static void setTablesLogged(
+            String jdbcUrl,
+            String username,
+            String password,
+            List<String> excludedTables,
+            boolean logged) {
+        PostgresqlDatabaseCleaner.setTablesLogged(jdbcUrl, username, password, excludedTables, logged);
+        LOGGED_TABLES.put(jdbcUrl, logged);
+    }
+}
@@ -1,5 +1,10 @@
 package dev.vality.testcontainers.annotations.postgresql;
 
+import dev.vality.testcontainers.annotations.postgresql.constants.PerformanceProfile;
+import dev.vality.testcontainers.annotations.postgresql.constants.PgBouncerPoolMode;
+import dev.vality.testcontainers.annotations.postgresql.constants.PlanGuardMode;
+import dev.vality.testcontainers.annotations.postgresql.constants.ResetStrategy;
+import dev.vality.testcontainers.annotations.postgresql.constants.TruncateMode;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.boot.test.context.SpringBootTest;
 
@@ -56,9 +61,100 @@ public @interface PostgresqlTestcontainer {
     /**
      * Таблицы, которые не нужно очищать между тестами.
      * Используется только если {@link #truncateTables()} = true
+     * <p>Партиционированная таблица очищается одним {@code TRUNCATE} корня вместе со всеми партициями, включая
+     * партицию по умолчанию. Если здесь указана партиция (например, партиция по умолчанию), вместо корня
+     * очищаются остальные листовые партиции дерева. Отсоединенная партиция — обычная таблица и очищается,
+     * если не указана здесь. Отдельного параметра для пропуска партиций нет
      * <p>
-     * пример — excludeTruncateTables = {"schema_history", "reference_data"}
+     * пример — excludeTruncateTables = {"schema_history", "reference_data", "invoice_default"}
      */
     String[] excludeTruncateTables() default {};
 
+    /**
+     * Способ очистки таблиц между тестами.
+     * Используется только если {@link #truncateTables()} = true
+     * <p>
+     * пример — truncateMode = TruncateMode.SINGLE_STATEMENT
+     *
+     * @see TruncateMode TruncateMode
+     */
+    TruncateMode truncateMode() default TruncateMode.PER_TABLE;
+
+    /**
+     * Способ возврата базы данных в исходное состояние между тестами.
+     * Используется только если {@link #truncateTables()} = true
+     * <p>
+     * пример — resetStrategy = ResetStrategy.ROLLBACK
+     *
+     * @see ResetStrategy ResetStrategy
+     */
+    ResetStrategy resetStrategy() default ResetStrategy.TRUNCATE;
+
+    /**
+     * Профиль настроек сервера PostgreSQL.
+     * По умолчанию берется из параметра {@code testcontainers.postgresql.performance-profile}
+     * <p>
+     * пример — performanceProfile = PerformanceProfile.NON_DURABLE
+     *
+     * @see PerformanceProfile PerformanceProfile
+     */
+    PerformanceProfile performanceProfile() default PerformanceProfile.DEFAULT;
+
+    /**
+     * Переводить пользовательские таблицы в режим {@code UNLOGGED} после применения миграций.
+     * Запись в такие таблицы не попадает в WAL, поэтому вставки выполняются заметно быстрее.
+     * Таблицы из {@link #excludeTruncateTables()} и таблицы Flyway не переводятся.
+     * Тестовый метод с аннотацией {@link PostgresqlLoggedTables} выполняется с таблицами в режиме {@code LOGGED}
+     *
+     * @return true - таблицы работают без записи в WAL
+     */
+    boolean unloggedTables() default false;
+
+    /**
+     * Количество баз данных в ротации.
+     * Используется только если {@link #resetStrategy()} = {@link ResetStrategy#ROTATION}
+     * <p>
+     * пример — rotationSize = 3
+     */
+    int rotationSize() default 2;
+
+    /**
+     * Проверка планов запросов, которые приложение выполняет в тестах, относительно базовых планов
+     * из {@code testcontainers.postgresql.plan-baseline-directory}
+     * <p>
+     * пример — planGuard = PlanGuardMode.FAIL
+     *
+     * @see PlanGuardMode PlanGuardMode
+     */
+    PlanGuardMode planGuard() default PlanGuardMode.OFF;
+
+    /**
+     * Режим пула PgBouncer, который запускается перед PostgreSQL. {@code spring.datasource.url}
+     * и {@code postgres.db.url} указывают на PgBouncer, а Flyway и очистка таблиц подключаются напрямую.
+     * Базы ротации {@link ResetStrategy#ROTATION} также подключаются напрямую
+     * <p>
+     * пример — pgBouncerPoolMode = PgBouncerPoolMode.TRANSACTION
+     *
+     * @see PgBouncerPoolMode PgBouncerPoolMode
+     */
+    PgBouncerPoolMode pgBouncerPoolMode() default PgBouncerPoolMode.OFF;
+
+    /**
+     * Количество серверных соединений PgBouncer на пару база-пользователь.
+     * Используется только если {@link #pgBouncerPoolMode()} != {@link PgBouncerPoolMode#OFF}
+     * <p>
+     * пример — pgBouncerPoolSize = 10
+     */
+    int pgBouncerPoolSize() default 20;
+
+    /**
+     * Количество реплик на потоковой репликации, которые запускаются вместе с PostgreSQL.
+     * Url реплик передаются в контекст приложения в {@code spring.datasource.replicas[i].url}
+     * (первая реплика также в {@code spring.datasource.replica.url}).
+     * Дождаться применения записанных данных на репликах можно через
+     * {@link PostgresqlContainerExtension#awaitReplication(java.time.Duration)}
+     * <p>
+     * пример — readReplicas = 2
+     */
+    int readReplicas() default 0;
 }
@@ -1,20 +1,35 @@
 package dev.vality.testcontainers.annotations.postgresql;
 
+import dev.vality.testcontainers.annotations.postgresql.constants.DatabaseIsolation;
+import dev.vality.testcontainers.annotations.postgresql.constants.PgBouncerPoolMode;
+import dev.vality.testcontainers.annotations.postgresql.constants.PlanGuardMode;
+import dev.vality.testcontainers.annotations.postgresql.constants.ResetStrategy;
+import dev.vality.testcontainers.annotations.postgresql.constants.TruncateMode;
 import dev.vality.testcontainers.annotations.util.GenericContainerUtil;
+import lombok.Synchronized;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.AfterEachCallback;
 import org.junit.jupiter.api.extension.BeforeAllCallback;
 import org.junit.jupiter.api.extension.BeforeEachCallback;
 import org.junit.jupiter.api.extension.ExtensionContext;
 import org.junit.platform.commons.support.AnnotationSupport;
 import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.context.ApplicationListener;
 import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.test.context.ContextConfigurationAttributes;
 import org.springframework.test.context.ContextCustomizer;
 import org.springframework.test.context.ContextCustomizerFactory;
+import org.testcontainers.containers.GenericContainer;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * {@code @PostgresqlTestcontainerExtension} инициализирует тестконтейнер из {@link PostgresqlTestcontainerFactory},
@@ -27,6 +42,11 @@ import java.util.Optional;
  * приложения {@link ConfigurableApplicationContext}
  * <p>Инициализация кастомизированных фабрик с инициализацией настроек осуществляется через описание бинов
  * в файле META-INF/spring.factories
+ * <p>Для синглтона в режимах {@link DatabaseIsolation#TEMPLATE_PER_CLASS} и {@link DatabaseIsolation#POOL}
+ * каждый тестовый класс получает собственную базу данных (клон мигрированного шаблона или базу из пула),
+ * и url именно этой базы передается в контекст приложения
+ * <p>С параметром {@code pgBouncerPoolMode} рядом с PostgreSQL запускается {@link PgBouncerContainerExtension},
+ * и в {@code spring.datasource.url} передается url базы через PgBouncer
  *
  * @see PostgresqlTestcontainerFactory PostgresqlTestcontainerFactory
  * @see PostgresqlTestcontainerContextCustomizerFactory PostgresqlTestcontainerContextCustomizerFactory
@@ -36,64 +56,294 @@ import java.util.Optional;
  * @see AfterAllCallback AfterAllCallback
  */
 @Slf4j
-public class PostgresqlTestcontainerExtension implements BeforeAllCallback, AfterAllCallback, BeforeEachCallback {
+public class PostgresqlTestcontainerExtension
+        implements BeforeAllCallback, AfterAllCallback, BeforeEachCallback, AfterEachCallback {
 
-    private static final ThreadLocal<PostgresqlContainerExtension> THREAD_CONTAINER = new ThreadLocal<>();
+    // состояние хранится по тестовому классу, а не по потоку: при параллельном запуске JUnit колбэки
+    // одного класса и кастомизатор контекста могут выполняться в разных потоках ForkJoin
+    private static final Map<Class<?>, PostgresqlContainerExtension> CLASS_CONTAINERS = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, PgBouncerContainerExtension> CLASS_PGBOUNCERS = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, String> CLASS_DATABASES = new ConcurrentHashMap<>();
+    private static final String PARALLELISM_PARAMETER = "junit.jupiter.execution.parallel.config.fixed.parallelism";
 
     @Override
     public void beforeAll(ExtensionContext context) {
         if (findPrototypeAnnotation(context).isPresent()) {
-            var container = PostgresqlTestcontainerFactory.container();
+            var container = PostgresqlTestcontainerFactory.container(
+                    findPrototypeAnnotation(context).get().performanceProfile());
             GenericContainerUtil.startContainer(container);
-            THREAD_CONTAINER.set(container);
+            CLASS_CONTAINERS.put(context.getRequiredTestClass(), container);
+            var annotation = findPrototypeAnnotation(context).get();
+            if (annotation.readReplicas() > 0) {
+                container.startReplicas(annotation.readReplicas());
+            }
+            if (annotation.pgBouncerPoolMode() != PgBouncerPoolMode.OFF) {
+                var pgBouncer = PostgresqlTestcontainerFactory.pgBouncerContainer(
+                        container,
+                        annotation.pgBouncerPoolMode(),
+                        annotation.pgBouncerPoolSize());
+                GenericContainerUtil.startContainer(pgBouncer);
+                CLASS_PGBOUNCERS.put(context.getRequiredTestClass(), pgBouncer);
+            }
         } else if (findSingletonAnnotation(context).isPresent()) {
-            var container = PostgresqlTestcontainerFactory.singletonContainer();
-            if (!container.isRunning()) {
-                GenericContainerUtil.startContainer(container);
-            } else if (findSingletonAnnotation(context).get().truncateTables()) {
-                var excludedTables = Optional.ofNullable(findSingletonAnnotation(context).get().excludeTruncateTables())
-                        .map(List::of)
-                        .orElse(List.of());
-                container.cleanupDatabaseTables(excludedTables);
+            var annotation = findSingletonAnnotation(context).get();
+            var container = PostgresqlTestcontainerFactory.singletonContainer(annotation.performanceProfile());
+            var excludedTables = Optional.ofNullable(annotation.excludeTruncateTables())
+                    .map(List::of)
+                    .orElse(List.of());
+            var truncateMode = PostgresqlDatabaseCleaner.resolveTruncateMode(
+                    annotation.truncateMode(),
+                    annotation.resetStrategy());
+            switch (annotation.databaseIsolation()) {
+                case SHARED -> {
+                    if (!startIfNotRunning(container) && annotation.truncateTables()) {
+                        container.cleanupDatabaseTables(excludedTables, truncateMode);
+                    }
+                }
+                case TEMPLATE_PER_CLASS -> {
+                    startIfNotRunning(container);
+                    var databaseName = container.createDatabaseFromTemplate(excludedTables, truncateMode);
+                    CLASS_DATABASES.put(context.getRequiredTestClass(), databaseName);
+                }
+                case POOL -> {
+                    startIfNotRunning(container);
+                    var databaseName = container.leaseDatabase(getDatabasePoolSize(context, annotation));
+                    CLASS_DATABASES.put(context.getRequiredTestClass(), databaseName);
+                    if (annotation.truncateTables()) {
+                        container.cleanupDatabaseTables(databaseName, excludedTables, truncateMode);
+                    }
+                }
+            }
+            if (annotation.readReplicas() > 0) {
+                container.startReplicas(annotation.readReplicas());
+            }
+            if (annotation.pgBouncerPoolMode() != PgBouncerPoolMode.OFF) {
+                var pgBouncer = PostgresqlTestcontainerFactory.singletonPgBouncerContainer(
+                        container,
+                        annotation.pgBouncerPoolMode(),
+                        annotation.pgBouncerPoolSize());
+                startIfNotRunning(pgBouncer);
+                CLASS_PGBOUNCERS.put(context.getRequiredTestClass(), pgBouncer);
             }
 
-            THREAD_CONTAINER.set(container);
+            CLASS_CONTAINERS.put(context.getRequiredTestClass(), container);
         }
     }
 
     @Override
     public void beforeEach(ExtensionContext context) {
-        var container = THREAD_CONTAINER.get();
+        if (findPrototypeAnnotation(context).isEmpty() && findSingletonAnnotation(context).isEmpty()) {
+            return;
+        }
+        var container = CLASS_CONTAINERS.get(context.getRequiredTestClass());
+        if (container == null || !container.isRunning()) {
+            // без контейнера тест молча работал бы с неочищенной или чужой базой
+            throw new IllegalStateException(
+                    "Postgresql container is not started for " + context.getRequiredTestClass().getName());
+        }
+        if (findPrototypeAnnotation(context).isPresent()) {
+            var annotation = findPrototypeAnnotation(context).get();
+            var excludedTables = Optional.ofNullable(annotation.excludeTruncateTables())
+                    .map(List::of)
+                    .orElse(List.of());
+            if (annotation.truncateTables() && annotation.resetStrategy() == ResetStrategy.BASELINE) {
+                PostgresqlBaseline.reset(
+                        context,
+                        container.getJdbcUrl(),
+                        container.getUsername(),
+                        container.getPassword(),
+                        excludedTables);
+            } else if (annotation.truncateTables() && annotation.resetStrategy() != ResetStrategy.ROTATION) {
+                container.cleanupDatabaseTables(
+                        excludedTables,
+                        PostgresqlDatabaseCleaner.resolveTruncateMode(
+                                annotation.truncateMode(),
+                                annotation.resetStrategy()));
+            }
+            if (annotation.unloggedTables()) {
+                PostgresqlTablesPersistence.prepare(
+                        context,
+                        container.getJdbcUrl(),
+                        container.getUsername(),
+                        container.getPassword(),
+                        excludedTables);
+            }
+            if (annotation.truncateTables() && annotation.resetStrategy() == ResetStrategy.ROTATION) {
+                PostgresqlDatabaseRotation.rotate(context);
+            }
+            PostgresqlFixtureLoader.load(
+                    context,
+                    container.getJdbcUrl(),
+                    container.getUsername(),
+                    container.getPassword(),
+                    annotation.truncateTables());
+            if (annotation.truncateTables() && annotation.resetStrategy() == ResetStrategy.ROLLBACK) {
+                PostgresqlRollbackInterceptor.beginTransactions(context);
+            }
+            if (container.isStatementStatisticsEnabled()) {
+                PostgresqlStatementStatistics.reset(container, container.getDatabaseName());
+            }
+            if (annotation.planGuard() != PlanGuardMode.OFF) {
+                PostgresqlPlanGuard.clear(context);
+            }
+        } else if (findSingletonAnnotation(context).isPresent()) {
+            var annotation = findSingletonAnnotation(context).get();
+            var databaseName = getDatabaseName(context.getRequiredTestClass(), container);
+            var excludedTables = Optional.ofNullable(annotation.excludeTruncateTables())
+                    .map(List::of)
+                    .orElse(List.of());
+            if (annotation.truncateTables() && annotation.resetStrategy() == ResetStrategy.BASELINE) {
+                PostgresqlBaseline.reset(
+                        context,
+                        container.getJdbcUrl(databaseName),
+                        container.getUsername(),
+                        container.getPassword(),
+                        excludedTables);
+            } else if (annotation.truncateTables() && annotation.resetStrategy() != ResetStrategy.ROTATION) {
+                container.cleanupDatabaseTables(
+                        databaseName,
+                        excludedTables,
+                        PostgresqlDatabaseCleaner.resolveTruncateMode(
+                                annotation.truncateMode(),
+                                annotation.resetStrategy()));
+            }
+            if (annotation.unloggedTables()) {
+                PostgresqlTablesPersistence.prepare(
+                        context,
+                        container.getJdbcUrl(databaseName),
+                        container.getUsername(),
+                        container.getPassword(),
+                        excludedTables);
+            }
+            if (annotation.truncateTables() && annotation.resetStrategy() == ResetStrategy.ROTATION) {
+                PostgresqlDatabaseRotation.rotate(context);
+            }
+            PostgresqlFixtureLoader.load(
+                    context,
+                    container.getJdbcUrl(databaseName),
+                    container.getUsername(),
+                    container.getPassword(),
+                    annotation.truncateTables());
+            if (annotation.truncateTables() && annotation.resetStrategy() == ResetStrategy.ROLLBACK) {
+                PostgresqlRollbackInterceptor.beginTransactions(context);
+            }
+            if (container.isStatementStatisticsEnabled()) {
+                PostgresqlStatementStatistics.reset(container, databaseName);
+            }
+            if (annotation.planGuard() != PlanGuardMode.OFF) {
+                PostgresqlPlanGuard.clear(context);
+            }
+        }
+        if (container.isSeqScanDetectionEnabled()) {
+            PostgresqlSeqScanDetector.snapshot(
+                    context,
+                    container.getJdbcUrl(getDatabaseName(context.getRequiredTestClass(), container)),
+                    container.getUsername(),
+                    container.getPassword());
+        }
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        var container = CLASS_CONTAINERS.get(context.getRequiredTestClass());
+        if (container != null && container.isRunning() && container.isStatementStatisticsEnabled()) {
+            PostgresqlStatementStatistics.report(
+                    context,
+                    container,
+                    getDatabaseName(context.getRequiredTestClass(), container));
+        }
         if (findPrototypeAnnotation(context).isPresent()) {
             var annotation = findPrototypeAnnotation(context).get();
-            if (container != null && container.isRunning() && annotation.truncateTables()) {
-                var excludedTables = Optional.ofNullable(annotation.excludeTruncateTables())
-                        .map(List::of)
-                        .orElse(List.of());
-                container.cleanupDatabaseTables(excludedTables);
+            if (annotation.planGuard() != PlanGuardMode.OFF) {
+                PostgresqlPlanGuard.verify(
+                        context,
+                        container.getJdbcUrl(),
+                        container.getUsername(),
+                        container.getPassword());
+            }
+            if (annotation.truncateTables() && annotation.resetStrategy() == ResetStrategy.ROLLBACK) {
+                PostgresqlRollbackInterceptor.rollbackTransactions(context);
             }
         } else if (findSingletonAnnotation(context).isPresent()) {
             var annotation = findSingletonAnnotation(context).get();
-            if (container != null && container.isRunning() && annotation.truncateTables()) {
-                var excludedTables = Optional.ofNullable(annotation.excludeTruncateTables())
-                        .map(List::of)
-                        .orElse(List.of());
-                container.cleanupDatabaseTables(excludedTables);
+            if (annotation.planGuard() != PlanGuardMode.OFF) {
+                PostgresqlPlanGuard.verify(
+                        context,
+                        container.getJdbcUrl(getDatabaseName(context.getRequiredTestClass(), container)),
+                        container.getUsername(),
+                        container.getPassword());
+            }
+            if (annotation.truncateTables() && annotation.resetStrategy() == ResetStrategy.ROLLBACK) {
+                PostgresqlRollbackInterceptor.rollbackTransactions(context);
             }
         }
+        // после отката: транзакции теста в режиме ROLLBACK до этого момента не завершены,
+        // и серверные процессы еще не сбросили по ним статистику
+        if (container != null && container.isRunning() && container.isSeqScanDetectionEnabled()) {
+            PostgresqlSeqScanDetector.report(
+                    context,
+                    container.getJdbcUrl(getDatabaseName(context.getRequiredTestClass(), container)),
+                    container.getUsername(),
+                    container.getPassword());
+        }
     }
 
     @Override
     public void afterAll(ExtensionContext context) {
         if (findPrototypeAnnotation(context).isPresent()) {
-            var container = THREAD_CONTAINER.get();
+            var container = CLASS_CONTAINERS.remove(context.getRequiredTestClass());
+            var pgBouncer = CLASS_PGBOUNCERS.remove(context.getRequiredTestClass());
+            if (pgBouncer != null && pgBouncer.isRunning()) {
+                pgBouncer.stop();
+            }
             if (container != null && container.isRunning()) {
                 container.stop();
             }
-            THREAD_CONTAINER.remove();
         } else if (findSingletonAnnotation(context).isPresent()) {
-            THREAD_CONTAINER.remove();
+            var annotation = findSingletonAnnotation(context).get();
+            var container = CLASS_CONTAINERS.remove(context.getRequiredTestClass());
+            CLASS_PGBOUNCERS.remove(context.getRequiredTestClass());
+            var databaseName = CLASS_DATABASES.remove(context.getRequiredTestClass());
+            if (container != null && databaseName != null) {
+                if (annotation.databaseIsolation() == DatabaseIsolation.POOL) {
+                    container.releaseDatabase(databaseName);
+                } else {
+                    // база класса удаляется при закрытии его контекста, который остается в кэше Spring;
+                    // здесь шаблон готовится только если контекст класса-источника так и не стартовал
+                    container.prepareTemplate(
+                            databaseName,
+                            List.of(annotation.excludeTruncateTables()),
+                            PostgresqlDatabaseCleaner.resolveTruncateMode(
+                                    annotation.truncateMode(),
+                                    annotation.resetStrategy()));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true, если контейнер был запущен этим вызовом
+     */
+    @Synchronized
+    private static boolean startIfNotRunning(GenericContainer<?> container) {
+        if (container.isRunning()) {
+            return false;
         }
+        GenericContainerUtil.startContainer(container);
+        return true;
+    }
+
+    private static int getDatabasePoolSize(ExtensionContext context, PostgresqlTestcontainerSingleton annotation) {
+        if (annotation.databasePoolSize() > 0) {
+            return annotation.databasePoolSize();
+        }
+        return context.getConfigurationParameter(PARALLELISM_PARAMETER)
+                .map(Integer::parseInt)
+                .orElse(Runtime.getRuntime().availableProcessors());
+    }
+
+    private static String getDatabaseName(Class<?> testClass, PostgresqlContainerExtension container) {
+        return CLASS_DATABASES.getOrDefault(testClass, container.getDatabaseName());
     }
 
     private static Optional<PostgresqlTestcontainer> findPrototypeAnnotation(ExtensionContext context) {
@@ -120,26 +370,134 @@ public class PostgresqlTestcontainerExtension implements BeforeAllCallback, Afte
                 List<ContextConfigurationAttributes> configAttributes) {
             return (context, mergedConfig) -> {
                 if (findPrototypeAnnotation(testClass).isPresent()) {
-                    init(context, findPrototypeAnnotation(testClass).get().properties());
+                    var annotation = findPrototypeAnnotation(testClass).get();
+                    init(context, testClass, annotation.properties(), annotation.readReplicas());
+                    if (annotation.truncateTables() && annotation.resetStrategy() == ResetStrategy.ROLLBACK) {
+                        context.getBeanFactory().addBeanPostProcessor(PostgresqlRollbackInterceptor.postProcessor());
+                    }
+                    if (annotation.unloggedTables()) {
+                        registerUnloggedTablesListener(context, testClass, annotation.excludeTruncateTables());
+                    }
+                    if (annotation.planGuard() != PlanGuardMode.OFF) {
+                        new PostgresqlPlanGuard(testClass, annotation.planGuard()).register(context);
+                    }
+                    if (annotation.truncateTables() && annotation.resetStrategy() == ResetStrategy.ROTATION) {
+                        registerRotation(
+                                context,
+                                testClass,
+                                annotation.excludeTruncateTables(),
+                                annotation.truncateMode(),
+                                annotation.rotationSize());
+                    }
                 } else if (findSingletonAnnotation(testClass).isPresent()) {
-                    init(context, findSingletonAnnotation(testClass).get().properties());
+                    var annotation = findSingletonAnnotation(testClass).get();
+                    init(context, testClass, annotation.properties(), annotation.readReplicas());
+                    if (annotation.databaseIsolation() == DatabaseIsolation.TEMPLATE_PER_CLASS) {
+                        registerTemplateDatabaseListeners(
+                                context,
+                                testClass,
+                                annotation.excludeTruncateTables(),
+                                PostgresqlDatabaseCleaner.resolveTruncateMode(
+                                        annotation.truncateMode(),
+                                        annotation.resetStrategy()));
+                    }
+                    if (annotation.truncateTables() && annotation.resetStrategy() == ResetStrategy.ROLLBACK) {
+                        context.getBeanFactory().addBeanPostProcessor(PostgresqlRollbackInterceptor.postProcessor());
+                    }
+                    if (annotation.unloggedTables()) {
+                        registerUnloggedTablesListener(context, testClass, annotation.excludeTruncateTables());
+                    }
+                    if (annotation.planGuard() != PlanGuardMode.OFF) {
+                        new PostgresqlPlanGuard(testClass, annotation.planGuard()).register(context);
+                    }
+                    if (annotation.truncateTables() && annotation.resetStrategy() == ResetStrategy.ROTATION) {
+                        registerRotation(
+                                context,
+                                testClass,
+                                annotation.excludeTruncateTables(),
+                                annotation.truncateMode(),
+                                annotation.rotationSize());
+                    }
                 }
             };
         }
 
-        private void init(ConfigurableApplicationContext context, String[] properties) {
-            var container = THREAD_CONTAINER.get();
-            var jdbcUrl = container.getJdbcUrl();
+        /**
+         * После старта контекста (когда Flyway уже применил миграции) база класса-источника копируется в шаблон,
+         * а при закрытии контекста база класса удаляется — до этого ее продолжает использовать пул
+         * закэшированного контекста
+         */
+        private void registerTemplateDatabaseListeners(
+                ConfigurableApplicationContext context,
+                Class<?> testClass,
+                String[] excludedTables,
+                TruncateMode truncateMode) {
+            var container = CLASS_CONTAINERS.get(testClass);
+            var databaseName = getDatabaseName(testClass, container);
+            context.addApplicationListener((ApplicationListener<ContextRefreshedEvent>) event -> {
+                if (event.getApplicationContext() == context) {
+                    container.prepareTemplate(databaseName, List.of(excludedTables), truncateMode);
+                }
+            });
+            context.addApplicationListener((ApplicationListener<ContextClosedEvent>) event -> {
+                if (event.getApplicationContext() == context && container.isRunning()) {
+                    container.dropDatabaseAsync(databaseName);
+                }
+            });
+        }
+
+        private void registerUnloggedTablesListener(
+                ConfigurableApplicationContext context,
+                Class<?> testClass,
+                String[] excludedTables) {
+            var container = CLASS_CONTAINERS.get(testClass);
+            PostgresqlTablesPersistence.registerListener(
+                    context,
+                    container.getJdbcUrl(getDatabaseName(testClass, container)),
+                    container.getUsername(),
+                    container.getPassword(),
+                    List.of(excludedTables));
+        }
+
+        private void registerRotation(
+                ConfigurableApplicationContext context,
+                Class<?> testClass,
+                String[] excludedTables,
+                TruncateMode truncateMode,
+                int rotationSize) {
+            var container = CLASS_CONTAINERS.get(testClass);
+            new PostgresqlDatabaseRotation(
+                    container::getJdbcUrl,
+                    getDatabaseName(testClass, container),
+                    container.getUsername(),
+                    container.getPassword(),
+                    List.of(excludedTables),
+                    truncateMode,
+                    Math.max(rotationSize, 2))
+                    .register(context);
+        }
+
+        private void init(
+                ConfigurableApplicationContext context,
+                Class<?> testClass,
+                String[] properties,
+                int readReplicas) {
+            var container = CLASS_CONTAINERS.get(testClass);
+            var databaseName = getDatabaseName(testClass, container);
+            var jdbcUrl = container.getJdbcUrl(databaseName);
+            var dataSourceUrl = Optional.ofNullable(CLASS_PGBOUNCERS.get(testClass))
+                    .map(pgBouncer -> pgBouncer.getJdbcUrl(databaseName))
+                    .orElse(jdbcUrl);
             var username = container.getUsername();
             var password = container.getPassword();
             TestPropertyValues.of(
-                            "spring.datasource.url=" + jdbcUrl,
+                            "spring.datasource.url=" + dataSourceUrl,
                             "spring.datasource.username=" + username,
                             "spring.datasource.password=" + password,
                             "spring.flyway.url=" + jdbcUrl,
                             "spring.flyway.user=" + username,
                             "spring.flyway.password=" + password,
-                            "postgres.db.url=" + jdbcUrl,
+                            "postgres.db.url=" + dataSourceUrl,
                             "postgres.db.user=" + username,
                             "postgres.db.username=" + username,
                             "postgres.db.password=" + password,
@@ -147,8 +505,29 @@ public class PostgresqlTestcontainerExtension implements BeforeAllCallback, Afte
                             "flyway.user=" + username,
                             "flyway.password=" + password,
                             "flyway.postgresql.transactional.lock=false")
+                    .and(getReplicaProperties(container, databaseName, readReplicas))
                     .and(properties)
                     .applyTo(context);
         }
+
+        private Stream<String> getReplicaProperties(
+                PostgresqlContainerExtension container,
+                String databaseName,
+                int readReplicas) {
+            var replicas = container.getReplicas();
+            return IntStream.range(0, Math.min(readReplicas, replicas.size()))
+                    .boxed()
+                    .flatMap(i -> {
+                        var jdbcUrl = replicas.get(i).getJdbcUrl(databaseName);
+                        var properties = Stream.of(
+                                "spring.datasource.replicas[%d].url=%s".formatted(i, jdbcUrl),
+                                "spring.datasource.replicas[%d].username=%s".formatted(i, container.getUsername()),
+                                "spring.datasource.replicas[%d].password=%s".formatted(i, container.getPassword()));
+                        return i > 0 ? properties : Stream.concat(properties, Stream.of(
+                                "spring.datasource.replica.url=" + jdbcUrl,
+                                "spring.datasource.replica.username=" + container.getUsername(),
+                                "spring.datasource.replica.password=" + container.getPassword()));
+                    });
+        }
     }
 }
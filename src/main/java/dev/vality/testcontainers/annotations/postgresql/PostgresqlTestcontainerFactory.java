@@ -1,13 +1,21 @@
 package dev.vality.testcontainers.annotations.postgresql;
 
+import dev.vality.testcontainers.annotations.postgresql.constants.PerformanceProfile;
+import dev.vality.testcontainers.annotations.postgresql.constants.PgBouncerPoolMode;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import lombok.Synchronized;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Фабрика по созданию контейнеров
- * <p>{@link #create()} создает экземпляр тестконтейнера
- * <p>{@link #getOrCreateSingletonContainer()} создает синглтон тестконтейнера
+ * <p>{@link #create(PerformanceProfile)} создает экземпляр тестконтейнера
+ * <p>{@link #getOrCreateSingletonContainer(PerformanceProfile)} создает синглтон тестконтейнера.
+ * Настройки синглтона задает тестовый класс, который первым его запросил
+ * <p>{@link #singletonPgBouncerContainer(PostgresqlContainerExtension, PgBouncerPoolMode, int)} создает
+ * синглтон PgBouncer для каждой пары режим-размер пула
  *
  * @see PostgresqlTestcontainerExtension PostgresqlTestcontainerExtension
  */
@@ -15,13 +23,36 @@ import lombok.Synchronized;
 public class PostgresqlTestcontainerFactory {
 
     private PostgresqlContainerExtension postgresqlContainer;
+    private final Map<String, PgBouncerContainerExtension> pgBouncerContainers = new HashMap<>();
 
     public static PostgresqlContainerExtension container() {
-        return instance().create();
+        return container(PerformanceProfile.DEFAULT);
+    }
+
+    public static PostgresqlContainerExtension container(PerformanceProfile performanceProfile) {
+        return instance().create(performanceProfile);
     }
 
     public static PostgresqlContainerExtension singletonContainer() {
-        return instance().getOrCreateSingletonContainer();
+        return singletonContainer(PerformanceProfile.DEFAULT);
+    }
+
+    public static PostgresqlContainerExtension singletonContainer(PerformanceProfile performanceProfile) {
+        return instance().getOrCreateSingletonContainer(performanceProfile);
+    }
+
+    public static PgBouncerContainerExtension pgBouncerContainer(
+            PostgresqlContainerExtension postgresql,
+            PgBouncerPoolMode poolMode,
+            int poolSize) {
+        return new PgBouncerContainerExtension(postgresql, poolMode, poolSize);
+    }
+
+    public static PgBouncerContainerExtension singletonPgBouncerContainer(
+            PostgresqlContainerExtension postgresql,
+            PgBouncerPoolMode poolMode,
+            int poolSize) {
+        return instance().getOrCreateSingletonPgBouncerContainer(postgresql, poolMode, poolSize);
     }
 
     private static PostgresqlTestcontainerFactory instance() {
@@ -29,16 +60,26 @@ public class PostgresqlTestcontainerFactory {
     }
 
     @Synchronized
-    private PostgresqlContainerExtension getOrCreateSingletonContainer() {
+    private PostgresqlContainerExtension getOrCreateSingletonContainer(PerformanceProfile performanceProfile) {
         if (postgresqlContainer != null) {
             return postgresqlContainer;
         }
-        postgresqlContainer = create();
+        postgresqlContainer = create(performanceProfile);
         return postgresqlContainer;
     }
 
-    private PostgresqlContainerExtension create() {
-        return new PostgresqlContainerExtension();
+    @Synchronized
+    private PgBouncerContainerExtension getOrCreateSingletonPgBouncerContainer(
+            PostgresqlContainerExtension postgresql,
+            PgBouncerPoolMode poolMode,
+            int poolSize) {
+        return pgBouncerContainers.computeIfAbsent(
+                poolMode + "_" + poolSize,
+                key -> new PgBouncerContainerExtension(postgresql, poolMode, poolSize));
+    }
+
+    private PostgresqlContainerExtension create(PerformanceProfile performanceProfile) {
+        return new PostgresqlContainerExtension(performanceProfile);
     }
 
     private static class SingletonHolder {
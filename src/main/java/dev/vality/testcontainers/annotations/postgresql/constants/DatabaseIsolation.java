@@ -0,0 +1,23 @@
+package dev.vality.testcontainers.annotations.postgresql.constants;
+
+/**
+ * Изоляция баз данных между тестовыми классами в синглтон-контейнере PostgreSQL
+ * <p>{@link #SHARED} — все тестовые классы используют одну базу данных контейнера,
+ * между классами таблицы очищаются
+ * <p>{@link #TEMPLATE_PER_CLASS} — первый тестовый класс получает пустую базу, которую мигрирует само приложение.
+ * Сразу после старта его контекста, до первого теста, база копируется в шаблон и шаблон очищается.
+ * Шаблон не выдается ни одному классу: каждый следующий класс получает собственную копию через
+ * {@code CREATE DATABASE ... TEMPLATE}, в которой миграции уже применены, а соединения к шаблону завершаются
+ * перед каждым копированием. Следующие классы дожидаются шаблона, поэтому их можно запускать параллельно.
+ * База класса удаляется в фоне при закрытии его контекста, а не после класса, так как контекст остается
+ * в кэше Spring и его пул продолжает ссылаться на базу
+ * <p>{@link #POOL} — при первом обращении в контейнере создается пул баз данных по числу параллельных потоков
+ * JUnit. Тестовый класс арендует базу из пула перед запуском и возвращает ее после, поэтому классы можно
+ * запускать параллельно ({@code junit.jupiter.execution.parallel.enabled=true}) на одном контейнере.
+ * Каждая база мигрируется приложением при первой аренде и очищается при каждой следующей
+ */
+public enum DatabaseIsolation {
+    SHARED,
+    TEMPLATE_PER_CLASS,
+    POOL
+}
@@ -0,0 +1,14 @@
+package dev.vality.testcontainers.annotations.postgresql.constants;
+
+/**
+ * Формат ресурса с тестовыми данными {@link dev.vality.testcontainers.annotations.postgresql.PostgresqlFixture}
+ * <p>{@link #CSV} — {@code COPY ... (FORMAT csv)}, первая строка считается заголовком, если не указано иное
+ * <p>{@link #TEXT} — текстовый формат {@code COPY} с разделителем табуляцией, как в выводе {@code pg_dump}
+ * <p>{@link #BINARY} — бинарный формат {@code COPY}, например полученный через
+ * {@code COPY table TO STDOUT (FORMAT binary)}. Самый быстрый для загрузки, но зависит от типов колонок
+ */
+public enum FixtureFormat {
+    CSV,
+    TEXT,
+    BINARY
+}
@@ -0,0 +1,18 @@
+package dev.vality.testcontainers.annotations.postgresql.constants;
+
+/**
+ * Профиль настроек сервера PostgreSQL
+ * <p>{@link #DEFAULT} — профиль берется из параметра {@code testcontainers.postgresql.performance-profile}
+ * в {@code application.yml}, а если параметр не задан — из {@code testcontainers-annotations.yml}
+ * <p>{@link #DURABLE} — сервер запускается с настройками по умолчанию
+ * <p>{@link #NON_DURABLE} — сервер запускается без гарантий сохранности данных
+ * ({@code fsync=off}, {@code synchronous_commit=off}, {@code full_page_writes=off}) с увеличенными
+ * {@code shared_buffers} и {@code wal_buffers}, а каталог данных размещается в памяти:
+ * tmpfs-раздел для контейнера и {@code /dev/shm} для embedded PostgreSQL.
+ * Подходит для тестов, которые много пишут в базу, но требует достаточного объема памяти
+ */
+public enum PerformanceProfile {
+    DEFAULT,
+    DURABLE,
+    NON_DURABLE
+}
@@ -0,0 +1,15 @@
+package dev.vality.testcontainers.annotations.postgresql.constants;
+
+/**
+ * Режим пула PgBouncer перед тестконтейнером PostgreSQL
+ * <p>{@link #OFF} — PgBouncer не запускается, приложение подключается к PostgreSQL напрямую
+ * <p>{@link #SESSION} — серверное соединение закрепляется за клиентом на всю сессию
+ * <p>{@link #TRANSACTION} — серверное соединение выдается на время транзакции, как в продакшене
+ * <p>{@link #STATEMENT} — серверное соединение выдается на один запрос, транзакции из нескольких запросов запрещены
+ */
+public enum PgBouncerPoolMode {
+    OFF,
+    SESSION,
+    TRANSACTION,
+    STATEMENT
+}
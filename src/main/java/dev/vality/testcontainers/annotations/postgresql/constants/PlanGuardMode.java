@@ -0,0 +1,13 @@
+package dev.vality.testcontainers.annotations.postgresql.constants;
+
+/**
+ * Реакция на изменение плана запроса относительно сохраненного базового плана
+ * <p>{@link #OFF} — планы не проверяются
+ * <p>{@link #WARN} — изменения планов пишутся в лог и в отчет JUnit
+ * <p>{@link #FAIL} — тест, в котором изменился план хотя бы одного запроса, падает
+ */
+public enum PlanGuardMode {
+    OFF,
+    WARN,
+    FAIL
+}
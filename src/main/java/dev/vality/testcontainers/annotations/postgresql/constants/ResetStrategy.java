@@ -0,0 +1,29 @@
+package dev.vality.testcontainers.annotations.postgresql.constants;
+
+/**
+ * Способ возврата базы данных PostgreSQL в исходное состояние между тестами
+ * <p>{@link #TRUNCATE} — перед каждым тестом таблицы очищаются способом из {@link TruncateMode}
+ * <p>{@link #ROLLBACK} — все {@link javax.sql.DataSource} бины тестового контекста оборачиваются в прокси,
+ * который на время теста отдает одно физическое соединение с открытой внешней транзакцией.
+ * Коммиты приложения превращаются в savepoint'ы, а после теста внешняя транзакция откатывается.
+ * Записи, закоммиченные в обход прокси (например, через отдельное соединение из теста),
+ * отслеживаются как в {@link TruncateMode#MODIFIED_TABLES} и очищаются перед следующим тестом.
+ * Режим не подходит для тестов, в которых приложение пишет в базу из нескольких потоков одновременно
+ * <p>{@link #ROTATION} — после старта контекста мигрированная база копируется в несколько баз ротации,
+ * и {@link javax.sql.DataSource} бины тестового контекста переключаются между ними на границе тестов.
+ * Использованная база очищается способом из {@link TruncateMode} в фоне, пока выполняется следующий тест,
+ * поэтому очистка не задерживает запуск теста. Переключаются только {@link javax.sql.DataSource} бины:
+ * соединения, открытые тестом напрямую по {@code spring.datasource.url}, работают с исходной базой
+ * <p>{@link #BASELINE} — перед первым тестом класса данные таблиц (например, справочники, заполненные
+ * при старте контекста или в {@code @BeforeAll}) сохраняются в теневые копии внутри базы вместе с состоянием
+ * последовательностей. Перед следующими тестами измененные таблицы и ссылающиеся на них восстанавливаются
+ * из копий одним вызовом серверной функции, без повторной передачи данных с клиента.
+ * Исключенные из очистки таблицы, которые ссылаются на сохраняемые, тоже сохраняются и восстанавливаются,
+ * потому что {@code TRUNCATE ... CASCADE} при восстановлении очищает и их
+ */
+public enum ResetStrategy {
+    TRUNCATE,
+    ROLLBACK,
+    ROTATION,
+    BASELINE
+}
@@ -0,0 +1,16 @@
+package dev.vality.testcontainers.annotations.postgresql.constants;
+
+/**
+ * Сбор статистики запросов в тестконтейнере PostgreSQL, задается параметром
+ * {@code testcontainers.postgresql.statement-statistics}
+ * <p>{@link #OFF} — статистика не собирается
+ * <p>{@link #STATEMENTS} — сервер запускается с {@code pg_stat_statements}, и после каждого теста
+ * самые дорогие запросы теста публикуются в отчет JUnit и записываются в файл
+ * <p>{@link #EXPLAIN} — дополнительно подключается {@code auto_explain}, который пишет в лог контейнера
+ * планы запросов, выполнявшихся дольше {@code testcontainers.postgresql.auto-explain-min-duration}
+ */
+public enum StatementStatistics {
+    OFF,
+    STATEMENTS,
+    EXPLAIN
+}
@@ -0,0 +1,30 @@
+package dev.vality.testcontainers.annotations.postgresql.constants;
+
+/**
+ * Способ очистки таблиц PostgreSQL между тестами
+ * <p>{@link #PER_TABLE} — список схем и таблиц читается на клиенте,
+ * для каждой таблицы выполняется отдельный {@code TRUNCATE ... CASCADE}
+ * <p>{@link #SINGLE_STATEMENT} — один раз на базу данных устанавливается PL/pgSQL функция,
+ * после чего каждая очистка выполняется одним вызовом, который делает один {@code TRUNCATE}
+ * всех таблиц на стороне сервера
+ * <p>{@link #MODIFIED_TABLES} — аналогично {@link #SINGLE_STATEMENT}, но очищаются только таблицы,
+ * в которые с момента прошлой очистки была запись. Для отслеживания изменений на каждую таблицу
+ * при первой очистке (то есть уже после миграций) вешается statement-level триггер,
+ * таблицы без триггера (например, созданные позже) считаются измененными.
+ * Если изменений не было, очистка сводится к одному вызову функции без {@code TRUNCATE}
+ * <p>{@link #ADAPTIVE} — аналогично {@link #SINGLE_STATEMENT}, но способ очистки выбирается для каждой таблицы
+ * по числу строк, которое считается не дальше порога {@code testcontainers.postgresql.adaptive-delete-threshold}:
+ * таблицы больше порога очищаются одним {@code TRUNCATE}, а маленькие — через {@code DELETE}, у которого нет
+ * фиксированной стоимости эксклюзивной блокировки, замены файлов таблицы и сброса кэшей. {@code DELETE}
+ * выполняется с включенными внешними ключами в порядке ссылок между таблицами, а таблицы с пользовательскими
+ * триггерами, таблицы, на которые ссылаются исключенные из очистки таблицы, и циклические ссылки
+ * без {@code ON DELETE CASCADE} очищаются через {@code TRUNCATE ... CASCADE}.
+ * Подобрать способ для своей схемы можно через
+ * {@code PostgresqlDatabaseCleaner#benchmarkTruncateModes}
+ */
+public enum TruncateMode {
+    PER_TABLE,
+    SINGLE_STATEMENT,
+    MODIFIED_TABLES,
+    ADAPTIVE
+}
@@ -0,0 +1,122 @@
+package dev.vality.testcontainers.annotations.kafka;
+
+import dev.vality.testcontainers.annotations.kafka.constants.TopicIsolation;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@KafkaTestcontainerSingleton(
+        topicsKeys = "kafka.topics.per-class.id",
+        topicIsolation = TopicIsolation.PER_CLASS,
+        groupIdKeys = "kafka.consumer.group-id")
+@SpringBootTest(classes = KafkaTestcontainerSingletonPerClassIntegrationTest.Config.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class KafkaTestcontainerSingletonPerClassIntegrationTest {
+
+    private static final String CLASS_SUFFIX = "-" + KafkaTestcontainerSingletonPerClassIntegrationTest.class
+            .getSimpleName() + "-";
+
+    @Autowired
+    private Environment environment;
+
+    @Test
+    @Order(1)
+    void shouldCreateClassTopicAndSuffixGroupId() throws Exception {
+        var topic = environment.getRequiredProperty("kafka.topics.per-class.id");
+        var bootstrapServers = environment.getRequiredProperty("spring.kafka.bootstrap-servers");
+
+        assertThat(topic)
+                .startsWith("per-class-test-topic" + CLASS_SUFFIX);
+        assertThat(environment.getRequiredProperty("kafka.consumer.group-id"))
+                .isEqualTo("per-class-test-group" + topic.substring("per-class-test-topic".length()));
+
+        try (var adminClient = AdminClient.create(adminProperties(bootstrapServers))) {
+            assertThat(adminClient.listTopics().names().get(10, TimeUnit.SECONDS))
+                    .contains(topic)
+                    .doesNotContain("per-class-test-topic");
+        }
+
+        try (var producer = new KafkaProducer<String, String>(producerProperties(bootstrapServers))) {
+            producer.send(new ProducerRecord<>(topic, "key", "value")).get(10, TimeUnit.SECONDS);
+        }
+
+        assertThat(readValues(topic, bootstrapServers))
+                .containsExactly("value");
+    }
+
+    @Test
+    @Order(2)
+    void shouldDeleteClassTopicRecordsBeforeEachTest() {
+        var topic = environment.getRequiredProperty("kafka.topics.per-class.id");
+        var bootstrapServers = environment.getRequiredProperty("spring.kafka.bootstrap-servers");
+
+        assertThat(readValues(topic, bootstrapServers))
+                .isEmpty();
+    }
+
+    private Properties adminProperties(String bootstrapServers) {
+        var properties = new Properties();
+        properties.put(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        return properties;
+    }
+
+    private Properties producerProperties(String bootstrapServers) {
+        var properties = new Properties();
+        properties.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        properties.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        properties.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        properties.put(ProducerConfig.ACKS_CONFIG, "all");
+        return properties;
+    }
+
+    private List<String> readValues(String topic, String bootstrapServers) {
+        try (var consumer = new KafkaConsumer<String, String>(consumerProperties(bootstrapServers))) {
+            var partition = new TopicPartition(topic, 0);
+            consumer.assign(List.of(partition));
+            consumer.seekToBeginning(List.of(partition));
+            var values = new ArrayList<String>();
+            var endOffset = consumer.endOffsets(List.of(partition)).get(partition);
+            while (consumer.position(partition) < endOffset) {
+                for (var record : consumer.poll(Duration.ofMillis(500)).records(topic)) {
+                    values.add(record.value());
+                }
+            }
+            return values;
+        }
+    }
+
+    private Properties consumerProperties(String bootstrapServers) {
+        var properties = new Properties();
+        properties.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        properties.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        properties.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        return properties;
+    }
+
+    @Configuration
+    static class Config {
+    }
+}
@@ -0,0 +1,91 @@
+package dev.vality.testcontainers.annotations.kafka;
+
+import dev.vality.testcontainers.annotations.kafka.constants.TopicTruncateMode;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@KafkaTestcontainer(
+        topicsKeys = "kafka.topics.truncate.id",
+        truncateMode = TopicTruncateMode.DELETE_RECORDS)
+@SpringBootTest(classes = KafkaTestcontainerTruncateIntegrationTest.Config.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class KafkaTestcontainerTruncateIntegrationTest {
+
+    @Autowired
+    private Environment environment;
+
+    @Test
+    @Order(1)
+    void shouldProduceRecordToTopic() throws Exception {
+        var topic = environment.getRequiredProperty("kafka.topics.truncate.id");
+        var bootstrapServers = environment.getRequiredProperty("spring.kafka.bootstrap-servers");
+
+        try (var producer = new KafkaProducer<String, String>(producerProperties(bootstrapServers))) {
+            producer.send(new ProducerRecord<>(topic, 0, "key", "value")).get(10, TimeUnit.SECONDS);
+        }
+
+        assertThat(getOffsets(topic, bootstrapServers))
+                .containsExactly(0L, 1L);
+    }
+
+    @Test
+    @Order(2)
+    void shouldDeleteRecordsWithoutRecreatingTopic() {
+        var topic = environment.getRequiredProperty("kafka.topics.truncate.id");
+        var bootstrapServers = environment.getRequiredProperty("spring.kafka.bootstrap-servers");
+
+        // после удаления записей начальное смещение сдвигается, у пересозданного топика оно было бы нулевым
+        assertThat(getOffsets(topic, bootstrapServers))
+                .containsExactly(1L, 1L);
+    }
+
+    private Properties producerProperties(String bootstrapServers) {
+        var properties = new Properties();
+        properties.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        properties.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        properties.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        properties.put(ProducerConfig.ACKS_CONFIG, "all");
+        return properties;
+    }
+
+    private List<Long> getOffsets(String topic, String bootstrapServers) {
+        try (var consumer = new KafkaConsumer<String, String>(consumerProperties(bootstrapServers))) {
+            var partition = new TopicPartition(topic, 0);
+            return List.of(
+                    consumer.beginningOffsets(List.of(partition)).get(partition),
+                    consumer.endOffsets(List.of(partition)).get(partition));
+        }
+    }
+
+    private Properties consumerProperties(String bootstrapServers) {
+        var properties = new Properties();
+        properties.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        properties.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        properties.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        return properties;
+    }
+
+    @Configuration
+    static class Config {
+    }
+}
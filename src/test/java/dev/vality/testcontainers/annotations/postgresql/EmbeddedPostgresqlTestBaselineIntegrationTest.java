@@ -0,0 +1,80 @@
+package dev.vality.testcontainers.annotations.postgresql;
+
+import dev.vality.testcontainers.annotations.postgresql.constants.ResetStrategy;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.connection;
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.countRows;
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.execute;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@EmbeddedPostgresqlTest(
+        resetStrategy = ResetStrategy.BASELINE,
+        excludeTruncateTables = "baseline_audit")
+@SpringBootTest(classes = EmbeddedPostgresqlTestBaselineIntegrationTest.Config.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class EmbeddedPostgresqlTestBaselineIntegrationTest {
+
+    @Autowired
+    private Environment environment;
+
+    @Test
+    @Order(1)
+    void shouldCaptureDataCreatedAtContextStart() throws Exception {
+        try (var connection = connection(environment)) {
+            assertThat(countRows(connection, "baseline_currency"))
+                    .isEqualTo(1);
+            assertThat(countRows(connection, "baseline_audit"))
+                    .isEqualTo(1);
+
+            execute(connection, "INSERT INTO baseline_currency (id) VALUES (2)");
+            execute(connection, "INSERT INTO baseline_payment (id, currency_id) VALUES (1, 2)");
+        }
+    }
+
+    @Test
+    @Order(2)
+    void shouldRestoreModifiedTablesAndExcludedReferencingTables() throws Exception {
+        try (var connection = connection(environment)) {
+            assertThat(countRows(connection, "baseline_currency"))
+                    .isEqualTo(1);
+            assertThat(countRows(connection, "baseline_payment"))
+                    .isZero();
+            assertThat(countRows(connection, "baseline_audit"))
+                    .isEqualTo(1);
+        }
+    }
+
+    @Configuration
+    static class Config {
+
+        // справочник и ссылающаяся на него исключенная из очистки таблица заполняются при старте контекста
+        @Bean
+        InitializingBean baselineTestTables(Environment environment) {
+            return () -> {
+                try (var connection = connection(environment)) {
+                    execute(connection, """
+                            CREATE TABLE IF NOT EXISTS baseline_currency (id INT PRIMARY KEY);
+                            CREATE TABLE IF NOT EXISTS baseline_payment (
+                                id INT PRIMARY KEY,
+                                currency_id INT NOT NULL REFERENCES baseline_currency (id));
+                            CREATE TABLE IF NOT EXISTS baseline_audit (
+                                id INT PRIMARY KEY,
+                                currency_id INT NOT NULL REFERENCES baseline_currency (id));
+                            INSERT INTO baseline_currency (id) VALUES (1) ON CONFLICT DO NOTHING;
+                            INSERT INTO baseline_audit (id, currency_id) VALUES (1, 1) ON CONFLICT DO NOTHING;
+                            """);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package dev.vality.testcontainers.annotations.postgresql;
+
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.connection;
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.count;
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.countRows;
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.execute;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@EmbeddedPostgresqlTest(truncateTables = false)
+@PostgresqlFixture(table = "fixture_invoice", resource = "fixtures/fixture_invoice.csv.gz")
+@PostgresqlFixture(table = "fixture_shop", resource = "fixtures/fixture_shop.csv")
+@PostgresqlFixture(table = "fixture_party", resource = "fixtures/fixture_party.csv")
+@PostgresqlFixture(table = "fixture_currency", resource = "fixtures/fixture_currency.csv")
+@SpringBootTest(classes = EmbeddedPostgresqlTestFixtureIntegrationTest.Config.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class EmbeddedPostgresqlTestFixtureIntegrationTest {
+
+    @Autowired
+    private Environment environment;
+
+    @Test
+    @Order(1)
+    void shouldLoadFixturesInForeignKeyOrder() throws Exception {
+        try (var connection = connection(environment)) {
+            assertThat(countRows(connection, "fixture_currency"))
+                    .isEqualTo(2);
+            assertThat(countRows(connection, "fixture_invoice"))
+                    .isEqualTo(3);
+            assertThat(count(connection, "SELECT SUM(amount) FROM fixture_invoice WHERE currency_id = 1"))
+                    .isEqualTo(300);
+        }
+    }
+
+    @Test
+    @Order(2)
+    void shouldLoadTablesWithCyclicForeignKeys() throws Exception {
+        try (var connection = connection(environment)) {
+            assertThat(count(connection, "SELECT COUNT(*) FROM fixture_party p " +
+                    "JOIN fixture_shop s ON s.id = p.shop_id AND s.party_id = p.id"))
+                    .isEqualTo(1);
+        }
+    }
+
+    @Test
+    @Order(3)
+    void shouldLoadClassFixturesOnceWithoutTruncateTables() throws Exception {
+        try (var connection = connection(environment)) {
+            assertThat(countRows(connection, "fixture_currency"))
+                    .isEqualTo(2);
+            assertThat(countRows(connection, "fixture_invoice"))
+                    .isEqualTo(3);
+        }
+    }
+
+    @Configuration
+    static class Config {
+
+        @Bean
+        InitializingBean fixtureTestTables(Environment environment) {
+            return () -> {
+                try (var connection = connection(environment)) {
+                    execute(connection, """
+                            DROP TABLE IF EXISTS fixture_invoice, fixture_currency, fixture_party, fixture_shop;
+                            CREATE TABLE fixture_currency (id INT PRIMARY KEY, code TEXT NOT NULL);
+                            CREATE TABLE fixture_invoice (
+                                id INT PRIMARY KEY,
+                                currency_id INT NOT NULL REFERENCES fixture_currency (id),
+                                amount BIGINT NOT NULL);
+                            CREATE TABLE fixture_party (id INT PRIMARY KEY, shop_id INT NOT NULL);
+                            CREATE TABLE fixture_shop (
+                                id INT PRIMARY KEY,
+                                party_id INT NOT NULL REFERENCES fixture_party (id));
+                            ALTER TABLE fixture_party ADD FOREIGN KEY (shop_id) REFERENCES fixture_shop (id);
+                            """);
+                }
+            };
+        }
+    }
+}
@@ -9,9 +9,9 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
 
-import java.sql.Connection;
-import java.sql.DriverManager;
-
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.connection;
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.countRows;
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.execute;
 import static org.assertj.core.api.Assertions.assertThat;
 
 @EmbeddedPostgresqlTest
@@ -36,11 +36,11 @@ class EmbeddedPostgresqlTestIntegrationTest {
         assertThat(environment.getRequiredProperty("postgres.db.url"))
                 .isEqualTo(environment.getRequiredProperty("spring.datasource.url"));
 
-        try (var connection = connection()) {
+        try (var connection = connection(environment)) {
             execute(connection, "CREATE TABLE IF NOT EXISTS " + TABLE_NAME + " (id INT PRIMARY KEY)");
             execute(connection, "INSERT INTO " + TABLE_NAME + " (id) VALUES (1)");
 
-            assertThat(countRows(connection))
+            assertThat(countRows(connection, TABLE_NAME))
                     .isEqualTo(1);
         }
     }
@@ -48,34 +48,12 @@ class EmbeddedPostgresqlTestIntegrationTest {
     @Test
     @Order(2)
     void shouldCleanupTablesBeforeEachTest() throws Exception {
-        try (var connection = connection()) {
-            assertThat(countRows(connection))
+        try (var connection = connection(environment)) {
+            assertThat(countRows(connection, TABLE_NAME))
                     .isZero();
         }
     }
 
-    private Connection connection() throws Exception {
-        return DriverManager.getConnection(
-                environment.getRequiredProperty("spring.datasource.url"),
-                environment.getRequiredProperty("spring.datasource.username"),
-                environment.getRequiredProperty("spring.datasource.password"));
-    }
-
-    private void execute(Connection connection, String sql) throws Exception {
-        try (var statement = connection.createStatement()) {
-            statement.execute(sql);
-        }
-    }
-
-    private int countRows(Connection connection) throws Exception {
-        try (
-                var statement = connection.createStatement();
-                var resultSet = statement.executeQuery("SELECT COUNT(*) FROM " + TABLE_NAME)) {
-            resultSet.next();
-            return resultSet.getInt(1);
-        }
-    }
-
     @Configuration
     static class Config {
     }
@@ -0,0 +1,73 @@
+package dev.vality.testcontainers.annotations.postgresql;
+
+import dev.vality.testcontainers.annotations.postgresql.constants.TruncateMode;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.sql.Connection;
+
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.connection;
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.count;
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.countRows;
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.execute;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@EmbeddedPostgresqlTest(truncateMode = TruncateMode.MODIFIED_TABLES)
+@SpringBootTest(classes = EmbeddedPostgresqlTestModifiedTablesIntegrationTest.Config.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class EmbeddedPostgresqlTestModifiedTablesIntegrationTest {
+
+    private static final String TABLE_NAME = "embedded_postgresql_modified_tables_test";
+
+    @Autowired
+    private Environment environment;
+
+    @Test
+    @Order(1)
+    void shouldCleanupTableCreatedAfterFirstCleanup() throws Exception {
+        try (var connection = connection(environment)) {
+            execute(connection, "CREATE TABLE IF NOT EXISTS " + TABLE_NAME + " (id INT PRIMARY KEY)");
+            execute(connection, "INSERT INTO " + TABLE_NAME + " (id) VALUES (1)");
+
+            assertThat(countRows(connection, TABLE_NAME))
+                    .isEqualTo(1);
+        }
+    }
+
+    @Test
+    @Order(2)
+    void shouldCleanupTrackedTableAfterWrite() throws Exception {
+        try (var connection = connection(environment)) {
+            assertThat(countRows(connection, TABLE_NAME))
+                    .isZero();
+
+            execute(connection, "INSERT INTO " + TABLE_NAME + " (id) VALUES (2)");
+        }
+    }
+
+    @Test
+    @Order(3)
+    void shouldTrackModifiedTablesWithTrigger() throws Exception {
+        try (var connection = connection(environment)) {
+            assertThat(countRows(connection, TABLE_NAME))
+                    .isZero();
+            assertThat(countTriggers(connection))
+                    .isEqualTo(1);
+        }
+    }
+
+    private int countTriggers(Connection connection) throws Exception {
+        return count(connection, "SELECT COUNT(*) FROM pg_trigger " +
+                "WHERE tgrelid = '" + TABLE_NAME + "'::regclass AND tgname = 'testcontainers_annotations_track'");
+    }
+
+    @Configuration
+    static class Config {
+    }
+}
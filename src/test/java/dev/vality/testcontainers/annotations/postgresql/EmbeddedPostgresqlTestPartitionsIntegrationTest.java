@@ -0,0 +1,78 @@
+package dev.vality.testcontainers.annotations.postgresql;
+
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.connection;
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.countRows;
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.execute;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@EmbeddedPostgresqlTest(excludeTruncateTables = "partitioned_event_default")
+@SpringBootTest(classes = EmbeddedPostgresqlTestPartitionsIntegrationTest.Config.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class EmbeddedPostgresqlTestPartitionsIntegrationTest {
+
+    @Autowired
+    private Environment environment;
+
+    @Test
+    @Order(1)
+    void shouldWriteIntoPartitions() throws Exception {
+        try (var connection = connection(environment)) {
+            execute(connection, "INSERT INTO partitioned_event (id, kind) VALUES (1, 'a'), (2, 'b'), (3, 'c')");
+            execute(connection, "INSERT INTO partitioned_event_detached (id, kind) VALUES (4, 'd')");
+
+            assertThat(countRows(connection, "partitioned_event"))
+                    .isEqualTo(3);
+            assertThat(countRows(connection, "partitioned_event_default"))
+                    .isEqualTo(1);
+        }
+    }
+
+    @Test
+    @Order(2)
+    void shouldTruncateLeafPartitionsExceptExcludedDefaultPartition() throws Exception {
+        try (var connection = connection(environment)) {
+            assertThat(countRows(connection, "partitioned_event_a"))
+                    .isZero();
+            assertThat(countRows(connection, "partitioned_event_b"))
+                    .isZero();
+            assertThat(countRows(connection, "partitioned_event_default"))
+                    .isEqualTo(1);
+            assertThat(countRows(connection, "partitioned_event_detached"))
+                    .isZero();
+        }
+    }
+
+    @Configuration
+    static class Config {
+
+        @Bean
+        InitializingBean partitionedTestTables(Environment environment) {
+            return () -> {
+                try (var connection = connection(environment)) {
+                    execute(connection, """
+                            DROP TABLE IF EXISTS partitioned_event, partitioned_event_detached;
+                            CREATE TABLE partitioned_event (id INT NOT NULL, kind TEXT NOT NULL)
+                                PARTITION BY LIST (kind);
+                            CREATE TABLE partitioned_event_a PARTITION OF partitioned_event FOR VALUES IN ('a');
+                            CREATE TABLE partitioned_event_b PARTITION OF partitioned_event FOR VALUES IN ('b');
+                            CREATE TABLE partitioned_event_default PARTITION OF partitioned_event DEFAULT;
+                            CREATE TABLE partitioned_event_detached
+                                PARTITION OF partitioned_event FOR VALUES IN ('d');
+                            ALTER TABLE partitioned_event DETACH PARTITION partitioned_event_detached;
+                            """);
+                }
+            };
+        }
+    }
+}
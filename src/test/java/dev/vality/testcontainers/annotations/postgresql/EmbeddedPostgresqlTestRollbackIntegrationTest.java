@@ -0,0 +1,83 @@
+package dev.vality.testcontainers.annotations.postgresql;
+
+import dev.vality.testcontainers.annotations.postgresql.constants.ResetStrategy;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.postgresql.ds.PGSimpleDataSource;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.connection;
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.countRows;
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.execute;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@EmbeddedPostgresqlTest(resetStrategy = ResetStrategy.ROLLBACK)
+@SpringBootTest(classes = EmbeddedPostgresqlTestRollbackIntegrationTest.Config.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class EmbeddedPostgresqlTestRollbackIntegrationTest {
+
+    private static final String TABLE_NAME = "rollback_test";
+
+    @Autowired
+    private Environment environment;
+
+    // внедрение по классу бина проверяет, что перехватчик не подменяет его тип
+    @Autowired
+    private PGSimpleDataSource dataSource;
+
+    @Test
+    @Order(1)
+    void shouldKeepCommittedDataInsideTestTransaction() throws Exception {
+        try (var connection = dataSource.getConnection()) {
+            execute(connection, "INSERT INTO " + TABLE_NAME + " (id) VALUES (1)");
+        }
+        try (var connection = dataSource.getConnection()) {
+            assertThat(countRows(connection, TABLE_NAME))
+                    .isEqualTo(1);
+        }
+        try (var connection = connection(environment)) {
+            assertThat(countRows(connection, TABLE_NAME))
+                    .isZero();
+        }
+    }
+
+    @Test
+    @Order(2)
+    void shouldRollbackDataAfterEachTest() throws Exception {
+        try (var connection = connection(environment)) {
+            assertThat(countRows(connection, TABLE_NAME))
+                    .isZero();
+        }
+    }
+
+    @Configuration
+    static class Config {
+
+        @Bean
+        DataSource dataSource(Environment environment) {
+            var dataSource = new PGSimpleDataSource();
+            dataSource.setURL(environment.getRequiredProperty("spring.datasource.url"));
+            dataSource.setUser(environment.getRequiredProperty("spring.datasource.username"));
+            dataSource.setPassword(environment.getRequiredProperty("spring.datasource.password"));
+            return dataSource;
+        }
+
+        @Bean
+        InitializingBean rollbackTestTable(Environment environment) {
+            return () -> {
+                try (var connection = connection(environment)) {
+                    execute(connection, "CREATE TABLE IF NOT EXISTS " + TABLE_NAME + " (id INT PRIMARY KEY)");
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package dev.vality.testcontainers.annotations.postgresql;
+
+import dev.vality.testcontainers.annotations.postgresql.constants.ResetStrategy;
+import dev.vality.testcontainers.annotations.postgresql.constants.TruncateMode;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.env.Environment;
+
+import java.sql.Connection;
+import java.util.List;
+
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.connection;
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.count;
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.countRows;
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.execute;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@EmbeddedPostgresqlTest(resetStrategy = ResetStrategy.ROTATION)
+@SpringBootTest(classes = EmbeddedPostgresqlTestRotationIntegrationTest.Config.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class EmbeddedPostgresqlTestRotationIntegrationTest {
+
+    private static final String TABLE_NAME = "embedded_postgresql_rotation_test";
+
+    private static String firstDatabase;
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private PostgresqlDatabaseRotation rotation;
+
+    @Test
+    @Order(1)
+    void shouldSwitchToRotationDatabase() throws Exception {
+        firstDatabase = rotation.getCurrentDatabase();
+        assertThat(firstDatabase)
+                .contains("_rotation_");
+
+        try (var connection = rotationConnection(rotation.getJdbcUrl(firstDatabase))) {
+            execute(connection, "INSERT INTO " + TABLE_NAME + " (id) VALUES (1)");
+
+            assertThat(countRows(connection, TABLE_NAME))
+                    .isEqualTo(1);
+        }
+    }
+
+    @Test
+    @Order(2)
+    void shouldRotateToCleanDatabaseBeforeNextTest() throws Exception {
+        assertThat(rotation.getCurrentDatabase())
+                .isNotEqualTo(firstDatabase)
+                .contains("_rotation_");
+
+        try (var connection = rotationConnection(rotation.getJdbcUrl(rotation.getCurrentDatabase()))) {
+            assertThat(countRows(connection, TABLE_NAME))
+                    .isZero();
+        }
+    }
+
+    @Test
+    @Order(3)
+    void shouldDropRotationDatabasesWhenContextIsClosed() throws Exception {
+        var jdbcUrl = environment.getRequiredProperty("spring.datasource.url");
+        var username = environment.getRequiredProperty("spring.datasource.username");
+        var password = environment.getRequiredProperty("spring.datasource.password");
+        var context = new GenericApplicationContext();
+        new PostgresqlDatabaseRotation(
+                database -> jdbcUrl.replace("/postgres?", "/" + database + "?"),
+                "postgres",
+                username,
+                password,
+                List.of(),
+                TruncateMode.PER_TABLE,
+                2)
+                .register(context);
+        context.refresh();
+        var rotationDatabase = context.getBean(PostgresqlDatabaseRotation.class).getCurrentDatabase();
+
+        assertThat(countDatabases(rotationDatabase))
+                .isEqualTo(1);
+
+        context.close();
+
+        assertThat(countDatabases(rotationDatabase))
+                .isZero();
+    }
+
+    private int countDatabases(String database) throws Exception {
+        try (var connection = connection(environment)) {
+            return count(connection, "SELECT COUNT(*) FROM pg_database WHERE datname = '" + database + "'");
+        }
+    }
+
+    private Connection rotationConnection(String jdbcUrl) throws Exception {
+        return connection(
+                jdbcUrl,
+                environment.getRequiredProperty("spring.datasource.username"),
+                environment.getRequiredProperty("spring.datasource.password"));
+    }
+
+    @Configuration
+    static class Config {
+
+        // таблица создается до подготовки баз ротации, как это делают миграции Flyway
+        @Bean
+        InitializingBean rotationTestTable(Environment environment) {
+            return () -> {
+                try (var connection = connection(environment)) {
+                    execute(connection, "CREATE TABLE IF NOT EXISTS " + TABLE_NAME + " (id INT PRIMARY KEY)");
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package dev.vality.testcontainers.annotations.postgresql;
+
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.sql.Connection;
+
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.connection;
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.execute;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@EmbeddedPostgresqlTest(
+        unloggedTables = true,
+        excludeTruncateTables = "unlogged_audit")
+@SpringBootTest(classes = EmbeddedPostgresqlTestUnloggedTablesIntegrationTest.Config.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class EmbeddedPostgresqlTestUnloggedTablesIntegrationTest {
+
+    private static final String UNLOGGED = "u";
+    private static final String PERMANENT = "p";
+
+    @Autowired
+    private Environment environment;
+
+    @Test
+    @Order(1)
+    void shouldMakeTablesUnloggedExceptExcluded() throws Exception {
+        try (var connection = connection(environment)) {
+            assertThat(getPersistence(connection, "unlogged_event"))
+                    .isEqualTo(UNLOGGED);
+            assertThat(getPersistence(connection, "unlogged_audit"))
+                    .isEqualTo(PERMANENT);
+        }
+    }
+
+    @Test
+    @Order(2)
+    @PostgresqlLoggedTables
+    void shouldMakeTablesLoggedForAnnotatedTest() throws Exception {
+        try (var connection = connection(environment)) {
+            assertThat(getPersistence(connection, "unlogged_event"))
+                    .isEqualTo(PERMANENT);
+        }
+    }
+
+    @Test
+    @Order(3)
+    void shouldMakeTablesUnloggedAgainAfterAnnotatedTest() throws Exception {
+        try (var connection = connection(environment)) {
+            assertThat(getPersistence(connection, "unlogged_event"))
+                    .isEqualTo(UNLOGGED);
+        }
+    }
+
+    private String getPersistence(Connection connection, String table) throws Exception {
+        try (var statement = connection.prepareStatement(
+                "SELECT relpersistence FROM pg_class WHERE oid = ?::regclass")) {
+            statement.setString(1, table);
+            try (var resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getString(1);
+            }
+        }
+    }
+
+    @Configuration
+    static class Config {
+
+        @Bean
+        InitializingBean unloggedTestTables(Environment environment) {
+            return () -> {
+                try (var connection = connection(environment)) {
+                    execute(connection, """
+                            CREATE TABLE IF NOT EXISTS unlogged_event (id INT PRIMARY KEY);
+                            CREATE TABLE IF NOT EXISTS unlogged_audit (id INT PRIMARY KEY);
+                            """);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package dev.vality.testcontainers.annotations.postgresql;
+
+import dev.vality.testcontainers.annotations.postgresql.constants.TruncateMode;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.util.List;
+
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.connection;
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.countRows;
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.execute;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostgresqlContainerTemplateIntegrationTest {
+
+    private static final String TABLE_NAME = "template_test";
+
+    private static PostgresqlContainerExtension container;
+
+    @BeforeAll
+    static void startContainer() {
+        container = new PostgresqlContainerExtension();
+        container.start();
+    }
+
+    @AfterAll
+    static void stopContainer() {
+        container.stop();
+    }
+
+    @Test
+    void shouldCloneCleanedTemplateWithoutTouchingSourceDatabase() throws Exception {
+        var sourceDatabaseName = container.createDatabaseFromTemplate(List.of(), TruncateMode.SINGLE_STATEMENT);
+
+        assertThat(sourceDatabaseName)
+                .isEqualTo(container.getDatabaseName() + "_1");
+
+        try (var connection = databaseConnection(sourceDatabaseName)) {
+            execute(connection, "CREATE TABLE " + TABLE_NAME + " (id INT PRIMARY KEY)");
+            execute(connection, "INSERT INTO " + TABLE_NAME + " (id) VALUES (1)");
+        }
+        container.prepareTemplate(sourceDatabaseName, List.of(), TruncateMode.SINGLE_STATEMENT);
+
+        // соединения к базе-источнику и к шаблону, открытые после подготовки шаблона, как у пула приложения
+        try (
+                var sourceConnection = databaseConnection(sourceDatabaseName);
+                var templateConnection = databaseConnection(container.getDatabaseName() + "_template")) {
+            var firstDatabaseName = container.createDatabaseFromTemplate(List.of(), TruncateMode.SINGLE_STATEMENT);
+            var secondDatabaseName = container.createDatabaseFromTemplate(List.of(), TruncateMode.SINGLE_STATEMENT);
+
+            assertThat(firstDatabaseName)
+                    .isEqualTo(container.getDatabaseName() + "_2");
+            assertThat(secondDatabaseName)
+                    .isEqualTo(container.getDatabaseName() + "_3");
+
+            for (var databaseName : List.of(firstDatabaseName, secondDatabaseName)) {
+                try (var connection = databaseConnection(databaseName)) {
+                    assertThat(countRows(connection, TABLE_NAME))
+                            .isZero();
+                }
+            }
+            assertThat(countRows(sourceConnection, TABLE_NAME))
+                    .isEqualTo(1);
+            assertThat(templateConnection.isValid(1))
+                    .isFalse();
+        }
+    }
+
+    private Connection databaseConnection(String databaseName) throws Exception {
+        return connection(container.getJdbcUrl(databaseName), container.getUsername(), container.getPassword());
+    }
+
+}
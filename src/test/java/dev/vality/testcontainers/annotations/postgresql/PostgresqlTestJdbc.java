@@ -0,0 +1,58 @@
+package dev.vality.testcontainers.annotations.postgresql;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.core.env.Environment;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+
+/**
+ * JDBC-хелперы интеграционных тестов, которые проверяют базу в обход {@code DataSource} приложения
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class PostgresqlTestJdbc {
+
+    /**
+     * @return соединение по свойствам {@code spring.datasource.*}
+     */
+    static Connection connection(Environment environment) throws Exception {
+        return connection(environment, "spring.datasource");
+    }
+
+    /**
+     * @return соединение по свойствам {@code <prefix>.url}, {@code <prefix>.username} и {@code <prefix>.password}
+     */
+    static Connection connection(Environment environment, String prefix) throws Exception {
+        return connection(
+                environment.getRequiredProperty(prefix + ".url"),
+                environment.getRequiredProperty(prefix + ".username"),
+                environment.getRequiredProperty(prefix + ".password"));
+    }
+
+    static Connection connection(String jdbcUrl, String username, String password) throws Exception {
+        return DriverManager.getConnection(jdbcUrl, username, password);
+    }
+
+    static void execute(Connection connection, String sql) throws Exception {
+        try (var statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    static int countRows(Connection connection, String table) throws Exception {
+        return count(connection, "SELECT COUNT(*) FROM " + table);
+    }
+
+    /**
+     * @return целочисленный результат запроса из одной строки
+     */
+    static int count(Connection connection, String sql) throws Exception {
+        try (
+                var statement = connection.createStatement();
+                var resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+}
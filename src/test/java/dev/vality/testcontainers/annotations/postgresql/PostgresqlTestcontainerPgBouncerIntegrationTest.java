@@ -0,0 +1,67 @@
+package dev.vality.testcontainers.annotations.postgresql;
+
+import dev.vality.testcontainers.annotations.postgresql.constants.PgBouncerPoolMode;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.sql.Connection;
+
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.connection;
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.countRows;
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.execute;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@PostgresqlTestcontainer(pgBouncerPoolMode = PgBouncerPoolMode.TRANSACTION)
+@SpringBootTest(classes = PostgresqlTestcontainerPgBouncerIntegrationTest.Config.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class PostgresqlTestcontainerPgBouncerIntegrationTest {
+
+    private static final String TABLE_NAME = "pgbouncer_test";
+
+    @Autowired
+    private Environment environment;
+
+    @Test
+    @Order(1)
+    void shouldConnectApplicationThroughPgBouncer() throws Exception {
+        assertThat(environment.getRequiredProperty("spring.datasource.url"))
+                .isNotEqualTo(environment.getRequiredProperty("spring.flyway.url"));
+        assertThat(environment.getRequiredProperty("postgres.db.url"))
+                .isEqualTo(environment.getRequiredProperty("spring.datasource.url"));
+
+        try (var connection = connection(environment)) {
+            execute(connection, "CREATE TABLE IF NOT EXISTS " + TABLE_NAME + " (id INT PRIMARY KEY)");
+            execute(connection, "INSERT INTO " + TABLE_NAME + " (id) VALUES (1)");
+        }
+        try (var connection = flywayConnection()) {
+            assertThat(countRows(connection, TABLE_NAME))
+                    .isEqualTo(1);
+        }
+    }
+
+    @Test
+    @Order(2)
+    void shouldCleanupTablesBehindPgBouncer() throws Exception {
+        try (var connection = connection(environment)) {
+            assertThat(countRows(connection, TABLE_NAME))
+                    .isZero();
+        }
+    }
+
+    private Connection flywayConnection() throws Exception {
+        return connection(
+                environment.getRequiredProperty("spring.flyway.url"),
+                environment.getRequiredProperty("spring.flyway.user"),
+                environment.getRequiredProperty("spring.flyway.password"));
+    }
+
+    @Configuration
+    static class Config {
+    }
+}
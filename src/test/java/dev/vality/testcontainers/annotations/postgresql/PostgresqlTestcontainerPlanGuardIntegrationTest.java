@@ -0,0 +1,98 @@
+package dev.vality.testcontainers.annotations.postgresql;
+
+import dev.vality.testcontainers.annotations.postgresql.constants.PlanGuardMode;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.postgresql.ds.PGSimpleDataSource;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.connection;
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.execute;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@PostgresqlTestcontainerSingleton(planGuard = PlanGuardMode.FAIL)
+@SpringBootTest(classes = PostgresqlTestcontainerPlanGuardIntegrationTest.Config.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class PostgresqlTestcontainerPlanGuardIntegrationTest {
+
+    private static final String QUERY = "SELECT id FROM plan_guard_test WHERE id = ?";
+    private static final Path BASELINE_FILE = Path.of(
+            "target/postgresql-plans",
+            PostgresqlTestcontainerPlanGuardIntegrationTest.class.getName() + ".json");
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeAll
+    static void deleteBaseline() throws Exception {
+        Files.deleteIfExists(BASELINE_FILE);
+    }
+
+    @Test
+    @Order(1)
+    void shouldRecordQueryExecutedThroughDataSource() throws Exception {
+        executeQuery();
+    }
+
+    @Test
+    @Order(2)
+    void shouldWriteBaselinePlanAfterTest() throws Exception {
+        assertThat(BASELINE_FILE)
+                .exists();
+        assertThat(Files.readString(BASELINE_FILE))
+                .contains(QUERY)
+                .contains("plan_guard_test");
+    }
+
+    @Test
+    @Order(3)
+    void shouldPassWhenPlanMatchesBaseline() throws Exception {
+        executeQuery();
+    }
+
+    private void executeQuery() throws Exception {
+        try (
+                var connection = dataSource.getConnection();
+                var statement = connection.prepareStatement(QUERY)) {
+            statement.setInt(1, 1);
+            try (var resultSet = statement.executeQuery()) {
+                assertThat(resultSet.next())
+                        .isFalse();
+            }
+        }
+    }
+
+    @Configuration
+    static class Config {
+
+        @Bean
+        DataSource dataSource(Environment environment) {
+            var dataSource = new PGSimpleDataSource();
+            dataSource.setURL(environment.getRequiredProperty("spring.datasource.url"));
+            dataSource.setUser(environment.getRequiredProperty("spring.datasource.username"));
+            dataSource.setPassword(environment.getRequiredProperty("spring.datasource.password"));
+            return dataSource;
+        }
+
+        @Bean
+        InitializingBean planGuardTestTable(Environment environment) {
+            return () -> {
+                try (var connection = connection(environment)) {
+                    execute(connection, "CREATE TABLE IF NOT EXISTS plan_guard_test (id INT PRIMARY KEY)");
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package dev.vality.testcontainers.annotations.postgresql;
+
+import dev.vality.testcontainers.annotations.postgresql.constants.DatabaseIsolation;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.connection;
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.countRows;
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.execute;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Вложенные классы выполняются одновременно в разных потоках и должны получить разные базы из пула,
+ * каждая из которых видит только свои строки
+ */
+@Execution(ExecutionMode.CONCURRENT)
+class PostgresqlTestcontainerPoolConcurrentIntegrationTest {
+
+    private static final String TABLE_NAME = "pool_concurrent_test";
+    private static final CountDownLatch INSERTED = new CountDownLatch(2);
+    private static final Map<String, String> DATABASE_URLS = new ConcurrentHashMap<>();
+
+    @Nested
+    @PostgresqlTestcontainerSingleton(databaseIsolation = DatabaseIsolation.POOL, databasePoolSize = 2)
+    @SpringBootTest(classes = Config.class)
+    class FirstClass {
+
+        @Autowired
+        private Environment environment;
+
+        @Test
+        void shouldUseOwnDatabase() throws Exception {
+            assertOwnDatabase(environment, "first", "second");
+        }
+    }
+
+    @Nested
+    @PostgresqlTestcontainerSingleton(databaseIsolation = DatabaseIsolation.POOL, databasePoolSize = 2)
+    @SpringBootTest(classes = Config.class)
+    class SecondClass {
+
+        @Autowired
+        private Environment environment;
+
+        @Test
+        void shouldUseOwnDatabase() throws Exception {
+            assertOwnDatabase(environment, "second", "first");
+        }
+    }
+
+    private static void assertOwnDatabase(Environment environment, String name, String otherName) throws Exception {
+        var url = environment.getRequiredProperty("spring.datasource.url");
+        assertThat(url)
+                .containsPattern("/test_pool_\\d+(\\?|$)");
+        DATABASE_URLS.put(name, url);
+
+        try (var connection = connection(environment)) {
+            execute(connection, "CREATE TABLE IF NOT EXISTS " + TABLE_NAME + " (id INT PRIMARY KEY)");
+            assertThat(countRows(connection, TABLE_NAME))
+                    .isZero();
+            execute(connection, "INSERT INTO " + TABLE_NAME + " (id) VALUES (1)");
+
+            // оба класса уже вставили строку: в общей базе их было бы две
+            INSERTED.countDown();
+            assertThat(INSERTED.await(1, TimeUnit.MINUTES))
+                    .isTrue();
+            assertThat(countRows(connection, TABLE_NAME))
+                    .isOne();
+        }
+        assertThat(DATABASE_URLS.get(otherName))
+                .isNotEqualTo(url);
+    }
+
+    @Configuration
+    static class Config {
+    }
+}
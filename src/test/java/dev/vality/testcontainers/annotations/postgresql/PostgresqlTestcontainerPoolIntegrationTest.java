@@ -0,0 +1,55 @@
+package dev.vality.testcontainers.annotations.postgresql;
+
+import dev.vality.testcontainers.annotations.postgresql.constants.DatabaseIsolation;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.connection;
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.countRows;
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.execute;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@PostgresqlTestcontainerSingleton(databaseIsolation = DatabaseIsolation.POOL, databasePoolSize = 2)
+@SpringBootTest(classes = PostgresqlTestcontainerPoolIntegrationTest.Config.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class PostgresqlTestcontainerPoolIntegrationTest {
+
+    private static final String TABLE_NAME = "pool_test";
+
+    @Autowired
+    private Environment environment;
+
+    @Test
+    @Order(1)
+    void shouldLeaseDatabaseFromPool() throws Exception {
+        assertThat(environment.getRequiredProperty("spring.datasource.url"))
+                .containsPattern("/test_pool_[12](\\?|$)");
+
+        try (var connection = connection(environment)) {
+            execute(connection, "CREATE TABLE IF NOT EXISTS " + TABLE_NAME + " (id INT PRIMARY KEY)");
+            assertThat(countRows(connection, TABLE_NAME))
+                    .isZero();
+
+            execute(connection, "INSERT INTO " + TABLE_NAME + " (id) VALUES (1)");
+        }
+    }
+
+    @Test
+    @Order(2)
+    void shouldCleanupTablesBeforeEachTest() throws Exception {
+        try (var connection = connection(environment)) {
+            assertThat(countRows(connection, TABLE_NAME))
+                    .isZero();
+        }
+    }
+
+    @Configuration
+    static class Config {
+    }
+}
@@ -0,0 +1,74 @@
+package dev.vality.testcontainers.annotations.postgresql;
+
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.sql.Connection;
+import java.time.Duration;
+
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.connection;
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.countRows;
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.execute;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@PostgresqlTestcontainer(readReplicas = 1)
+@SpringBootTest(classes = PostgresqlTestcontainerReadReplicasIntegrationTest.Config.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class PostgresqlTestcontainerReadReplicasIntegrationTest {
+
+    private static final String TABLE_NAME = "read_replica_test";
+    private static final Duration REPLICATION_TIMEOUT = Duration.ofSeconds(30);
+
+    @Autowired
+    private Environment environment;
+
+    @Test
+    @Order(1)
+    void shouldReplicateWritesToReplica() throws Exception {
+        assertThat(environment.getRequiredProperty("spring.datasource.replica.url"))
+                .isEqualTo(environment.getRequiredProperty("spring.datasource.replicas[0].url"))
+                .isNotEqualTo(environment.getRequiredProperty("spring.datasource.url"));
+
+        try (var connection = connection(environment)) {
+            execute(connection, "CREATE TABLE IF NOT EXISTS " + TABLE_NAME + " (id INT PRIMARY KEY)");
+            execute(connection, "INSERT INTO " + TABLE_NAME + " (id) VALUES (1)");
+        }
+        try (var connection = connection(environment, "spring.datasource.replica")) {
+            assertThat(isInRecovery(connection))
+                    .isTrue();
+            await().atMost(REPLICATION_TIMEOUT)
+                    .untilAsserted(() -> assertThat(countRows(connection, TABLE_NAME))
+                            .isEqualTo(1));
+        }
+    }
+
+    @Test
+    @Order(2)
+    void shouldReplicateCleanupToReplica() throws Exception {
+        try (var connection = connection(environment, "spring.datasource.replica")) {
+            await().atMost(REPLICATION_TIMEOUT)
+                    .untilAsserted(() -> assertThat(countRows(connection, TABLE_NAME))
+                            .isZero());
+        }
+    }
+
+    private boolean isInRecovery(Connection connection) throws Exception {
+        try (
+                var statement = connection.createStatement();
+                var resultSet = statement.executeQuery("SELECT pg_is_in_recovery()")) {
+            resultSet.next();
+            return resultSet.getBoolean(1);
+        }
+    }
+
+    @Configuration
+    static class Config {
+    }
+}
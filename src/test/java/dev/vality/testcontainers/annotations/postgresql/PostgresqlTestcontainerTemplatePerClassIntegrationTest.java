@@ -0,0 +1,100 @@
+package dev.vality.testcontainers.annotations.postgresql;
+
+import dev.vality.testcontainers.annotations.postgresql.constants.DatabaseIsolation;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.ClassOrderer;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestClassOrder;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.sql.Connection;
+
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.connection;
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.countRows;
+import static dev.vality.testcontainers.annotations.postgresql.PostgresqlTestJdbc.execute;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestClassOrder(ClassOrderer.OrderAnnotation.class)
+class PostgresqlTestcontainerTemplatePerClassIntegrationTest {
+
+    private static final String TABLE_NAME = "template_per_class_test";
+
+    private static String firstDatabaseUrl;
+    // соединение первого класса остается открытым, как idle-соединение пула его закэшированного контекста
+    private static Connection firstClassConnection;
+
+    @AfterAll
+    static void closeFirstClassConnection() throws Exception {
+        if (firstClassConnection != null) {
+            firstClassConnection.close();
+        }
+    }
+
+    @Nested
+    @Order(1)
+    @PostgresqlTestcontainerSingleton(databaseIsolation = DatabaseIsolation.TEMPLATE_PER_CLASS)
+    @SpringBootTest(classes = Config.class)
+    class FirstClass {
+
+        @Autowired
+        private Environment environment;
+
+        @Test
+        void shouldUseOwnDatabaseInsteadOfTemplate() throws Exception {
+            firstDatabaseUrl = environment.getRequiredProperty("spring.datasource.url");
+
+            assertThat(firstDatabaseUrl)
+                    .doesNotContain("_template");
+
+            firstClassConnection = connection(environment);
+            execute(firstClassConnection, "INSERT INTO " + TABLE_NAME + " (id) VALUES (1)");
+        }
+    }
+
+    @Nested
+    @Order(2)
+    @PostgresqlTestcontainerSingleton(databaseIsolation = DatabaseIsolation.TEMPLATE_PER_CLASS)
+    @SpringBootTest(classes = Config.class)
+    class SecondClass {
+
+        @Autowired
+        private Environment environment;
+
+        @Test
+        void shouldGetCleanCloneWhileFirstClassDatabaseIsInUse() throws Exception {
+            assertThat(environment.getRequiredProperty("spring.datasource.url"))
+                    .doesNotContain("_template")
+                    .isNotEqualTo(firstDatabaseUrl);
+
+            try (var connection = connection(environment)) {
+                assertThat(countRows(connection, TABLE_NAME))
+                        .isZero();
+            }
+            assertThat(firstClassConnection.isValid(1))
+                    .isTrue();
+            assertThat(countRows(firstClassConnection))
+                    .isEqualTo(1);
+        }
+    }
+
+    @Configuration
+    static class Config {
+
+        // таблица создается при старте контекста первого класса и попадает в шаблон вместе с миграциями
+        @Bean
+        InitializingBean templateTestTable(Environment environment) {
+            return () -> {
+                try (var connection = connection(environment)) {
+                    execute(connection, "CREATE TABLE IF NOT EXISTS " + TABLE_NAME + " (id INT PRIMARY KEY)");
+                }
+            };
+        }
+    }
+}